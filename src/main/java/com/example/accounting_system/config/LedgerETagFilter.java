@@ -0,0 +1,122 @@
+package com.example.accounting_system.config;
+
+import com.example.accounting_system.services.LedgerVersion;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Conditional GET for the balance and list endpoints. Their responses get a strong ETag derived from the
+ * {@link LedgerVersion}, and a request whose {@code If-None-Match} holds the current tag is answered with 304
+ * before reaching the controller, so without any database access.
+ * <p>
+ * Tomcat does not compress responses with a strong ETag, so large responses are compressed here,
+ * with a separate tag for the gzip representation.
+ */
+@Component
+public class LedgerETagFilter extends OncePerRequestFilter {
+    static final List<String> TAGGED_PATHS = List.of(
+            "/api/v1/*", // transaction and debt lists, category lookup
+            "/api/v1/transaction/*", // balance, balance-stats, search and single transactions
+            "/api/v1/debt/*", // payments and single debts
+            "/api/v1/debt/*/payments",
+            "/api/v1/categories/summary",
+            "/api/v1/categories/*/*");
+    private static final PathMatcher PATH_MATCHER = new AntPathMatcher();
+    private static final String GZIP = "gzip";
+
+    private final LedgerVersion ledgerVersion;
+    private final int minCompressSize;
+
+    public LedgerETagFilter(LedgerVersion ledgerVersion,
+                            @Value("${server.compression.min-response-size:2KB}") DataSize minCompressSize) {
+        this.ledgerVersion = ledgerVersion;
+        this.minCompressSize = (int) minCompressSize.toBytes();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // Only stream=true selects the streamed lists, any other value gets the tagged page
+        if (!"GET".equals(request.getMethod()) || Boolean.parseBoolean(request.getParameter("stream"))) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return TAGGED_PATHS.stream().noneMatch(pattern -> PATH_MATCHER.match(pattern, path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean gzip = acceptsGzip(request);
+        // Read before the response is computed: a write committed meanwhile makes the tag stale, never the body
+        String etag = "\"" + ledgerVersion.currentTag() + (gzip ? "-" + GZIP : "") + "\"";
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setHeader(HttpHeaders.ETAG, etag);
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        ContentCachingResponseWrapper cachingResponse = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, cachingResponse);
+        if (cachingResponse.getStatus() != HttpServletResponse.SC_OK) {
+            cachingResponse.copyBodyToResponse();
+            return;
+        }
+        response.setHeader(HttpHeaders.ETAG, etag);
+        if (!gzip || cachingResponse.getContentSize() < minCompressSize) {
+            cachingResponse.copyBodyToResponse();
+            return;
+        }
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(cachingResponse.getContentSize() / 4);
+        try (GZIPOutputStream gzipStream = new GZIPOutputStream(compressed)) {
+            cachingResponse.getContentInputStream().transferTo(gzipStream);
+        }
+        response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+        response.setContentLength(compressed.size());
+        compressed.writeTo(response.getOutputStream());
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.contains(GZIP);
+    }
+
+    /**
+     * Checks an {@code If-None-Match} header against a tag, with the weak comparison it calls for.
+     *
+     * @param ifNoneMatch the header value, or null
+     * @param etag        the current tag
+     * @return whether the header matches the tag
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            String candidate = tag.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.accounting_system.controllers;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Maps the exceptions shared by all endpoints to their responses.
+ */
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleInvalidArgument(IllegalArgumentException e) {
+        // Invalid page sizes, cursors, sort fields and request values are client errors
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+}
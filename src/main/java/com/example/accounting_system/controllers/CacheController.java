@@ -0,0 +1,28 @@
+package com.example.accounting_system.controllers;
+
+import com.example.accounting_system.dtos.CacheStatisticsDto;
+import com.example.accounting_system.services.EntityCacheService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/cache")
+@CrossOrigin("*")
+public class CacheController {
+    private final EntityCacheService entityCacheService;
+
+    @GetMapping("/statistics")
+    public ResponseEntity<List<CacheStatisticsDto>> getStatistics() {
+        return ResponseEntity.ok(entityCacheService.getStatistics());
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Void> evictAll() {
+        entityCacheService.evictAll();
+        return ResponseEntity.noContent().build();
+    }
+}
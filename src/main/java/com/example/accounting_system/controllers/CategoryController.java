@@ -1,7 +1,11 @@
 package com.example.accounting_system.controllers;
 
+import com.example.accounting_system.dtos.CategorySummaryDto;
+import com.example.accounting_system.entities.Debt;
+import com.example.accounting_system.entities.Transaction;
 import com.example.accounting_system.services.CategoryService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -10,7 +14,7 @@ import java.util.List;
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/api/v1")
-@CrossOrigin("*")
+@CrossOrigin(origins = "*", exposedHeaders = {ListResponses.NEXT_CURSOR_HEADER, HttpHeaders.ETAG})
 public class CategoryController {
     private final CategoryService categoryService;
 
@@ -18,4 +22,30 @@ public class CategoryController {
     public ResponseEntity<List<Object>> getAllByCategory(@PathVariable("category") String category) {
         return ResponseEntity.ok(categoryService.getTransactionsAndDebtsByCategory(category));
     }
+
+    @GetMapping("/categories/summary")
+    public ResponseEntity<List<CategorySummaryDto>> getCategorySummaries() {
+        return ResponseEntity.ok(categoryService.getCategorySummaries());
+    }
+
+    @GetMapping("/categories/{category}/summary")
+    public ResponseEntity<List<CategorySummaryDto>> getCategorySummary(@PathVariable("category") String category) {
+        return ResponseEntity.ok(categoryService.getCategorySummary(category));
+    }
+
+    @GetMapping("/categories/{category}/transactions")
+    public ResponseEntity<List<Transaction>> getTransactionsByCategory(@PathVariable("category") String category,
+                                                                       @RequestParam(value = "after", required = false) Long afterId,
+                                                                       @RequestParam(value = "size", defaultValue = ListResponses.DEFAULT_PAGE_SIZE) int size) {
+        int pageSize = ListResponses.pageSize(size);
+        return ListResponses.page(categoryService.getTransactionsByCategory(category, afterId, pageSize), pageSize, Transaction::getId);
+    }
+
+    @GetMapping("/categories/{category}/debts")
+    public ResponseEntity<List<Debt>> getDebtsByCategory(@PathVariable("category") String category,
+                                                         @RequestParam(value = "after", required = false) Long afterId,
+                                                         @RequestParam(value = "size", defaultValue = ListResponses.DEFAULT_PAGE_SIZE) int size) {
+        int pageSize = ListResponses.pageSize(size);
+        return ListResponses.page(categoryService.getDebtsByCategory(category, afterId, pageSize), pageSize, Debt::getId);
+    }
 }
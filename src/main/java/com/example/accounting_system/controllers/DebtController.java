@@ -1,28 +1,36 @@
 package com.example.accounting_system.controllers;
 
 import com.example.accounting_system.dtos.DebtDto;
+import com.example.accounting_system.dtos.InstallmentDto;
 import com.example.accounting_system.dtos.NotificationDto;
 import com.example.accounting_system.dtos.PaymentDto;
+import com.example.accounting_system.dtos.PaymentViewDto;
 import com.example.accounting_system.entities.Debt;
 import com.example.accounting_system.entities.Payment;
 import com.example.accounting_system.services.DebtService;
 import com.example.accounting_system.services.NotificationService;
 import com.example.accounting_system.services.PaymentService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/debt")
 @RequiredArgsConstructor
-@CrossOrigin("*")
+@CrossOrigin(origins = "*", exposedHeaders = {ListResponses.NEXT_CURSOR_HEADER, HttpHeaders.ETAG})
 public class DebtController {
     private final DebtService debtService;
     private final NotificationService notificationService;
     private final PaymentService paymentService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public ResponseEntity<Debt> createDebt(@RequestBody DebtDto debtDto) {
@@ -31,7 +39,7 @@ public class DebtController {
     }
 
     @PostMapping("/notification")
-    public ResponseEntity<List<Debt>> createNotification(@RequestBody NotificationDto notificationDto) {
+    public ResponseEntity<Integer> createNotification(@RequestBody NotificationDto notificationDto) {
         return new ResponseEntity<>(notificationService.createNotifications(notificationDto), HttpStatus.CREATED);
     }
 
@@ -46,6 +54,13 @@ public class DebtController {
         return ResponseEntity.ok(debtService.getDebtById(id));
     }
 
+    @GetMapping("/{id}/schedule")
+    public ResponseEntity<List<InstallmentDto>> getPaymentSchedule(@PathVariable("id") Long id,
+                                                                   @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                   @RequestParam(value = "size", defaultValue = ListResponses.DEFAULT_PAGE_SIZE) int size) {
+        return ResponseEntity.ok(debtService.getPaymentSchedule(id, from != null ? from : LocalDate.now(), ListResponses.pageSize(size)));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<Debt> updateDebt(@PathVariable("id") Long debtId,
                                            @RequestBody DebtDto debtDto) {
@@ -54,8 +69,15 @@ public class DebtController {
     }
 
     @GetMapping
-    public ResponseEntity<List<Debt>> getAllDebts() {
-        return ResponseEntity.ok(debtService.getAllDebts());
+    public ResponseEntity<List<Debt>> getAllDebts(@RequestParam(value = "after", required = false) Long afterId,
+                                                  @RequestParam(value = "size", defaultValue = ListResponses.DEFAULT_PAGE_SIZE) int size) {
+        int pageSize = ListResponses.pageSize(size);
+        return ListResponses.page(debtService.getDebtsPage(afterId, pageSize), pageSize, Debt::getId);
+    }
+
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamAllDebts() {
+        return ListResponses.jsonArray(objectMapper, debtService::streamAllDebts);
     }
 
     @PostMapping("/{debtId}")
@@ -66,12 +88,19 @@ public class DebtController {
     }
 
     @GetMapping("/payments")
-    public ResponseEntity<List<Payment>> getAllPayments() {
-        return ResponseEntity.ok(paymentService.getAllPayments());
+    public ResponseEntity<List<PaymentViewDto>> getAllPayments(@RequestParam(value = "after", required = false) Long afterId,
+                                                               @RequestParam(value = "size", defaultValue = ListResponses.DEFAULT_PAGE_SIZE) int size) {
+        int pageSize = ListResponses.pageSize(size);
+        return ListResponses.page(paymentService.getPaymentsPage(afterId, pageSize), pageSize, PaymentViewDto::getId);
+    }
+
+    @GetMapping(value = "/payments", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamAllPayments() {
+        return ListResponses.jsonArray(objectMapper, paymentService::streamAllPayments);
     }
 
     @GetMapping("/{debtId}/payments")
-    public ResponseEntity<List<Payment>> getAllPayments(@PathVariable("debtId")Long id) {
+    public ResponseEntity<List<PaymentViewDto>> getAllPayments(@PathVariable("debtId")Long id) {
         return ResponseEntity.ok(paymentService.getPaymentByDebtId(id));
     }
 
@@ -0,0 +1,62 @@
+package com.example.accounting_system.controllers;
+
+import com.example.accounting_system.services.ExportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/v1/export")
+@RequiredArgsConstructor
+@CrossOrigin("*")
+public class ExportController {
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+    private static final MediaType APPLICATION_GZIP = new MediaType("application", "gzip");
+
+    private final ExportService exportService;
+
+    @GetMapping("/transactions")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "category", required = false) String category,
+            @RequestParam(value = "gzip", defaultValue = "false") boolean gzip) {
+        return csv("transactions", gzip, outputStream -> exportService.exportTransactions(from, to, category, gzip, outputStream));
+    }
+
+    @GetMapping("/payments")
+    public ResponseEntity<StreamingResponseBody> exportPayments(
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "category", required = false) String category,
+            @RequestParam(value = "gzip", defaultValue = "false") boolean gzip) {
+        return csv("payments", gzip, outputStream -> exportService.exportPayments(from, to, category, gzip, outputStream));
+    }
+
+    @GetMapping("/debts")
+    public ResponseEntity<StreamingResponseBody> exportDebts(
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "category", required = false) String category,
+            @RequestParam(value = "gzip", defaultValue = "false") boolean gzip) {
+        return csv("debts", gzip, outputStream -> exportService.exportDebts(from, to, category, gzip, outputStream));
+    }
+
+    private static ResponseEntity<StreamingResponseBody> csv(String name, boolean gzip, StreamingResponseBody body) {
+        ContentDisposition disposition = ContentDisposition.attachment()
+                .filename(name + (gzip ? ".csv.gz" : ".csv"))
+                .build();
+        return ResponseEntity.ok()
+                .contentType(gzip ? APPLICATION_GZIP : TEXT_CSV)
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                .body(body);
+    }
+}
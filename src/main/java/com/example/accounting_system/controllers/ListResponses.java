@@ -0,0 +1,93 @@
+package com.example.accounting_system.controllers;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Helpers shared by the list endpoints: keyset page responses and incrementally written JSON arrays.
+ */
+final class ListResponses {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final String DEFAULT_PAGE_SIZE = "100";
+    static final int MAX_PAGE_SIZE = 1000;
+
+    private ListResponses() {
+    }
+
+    /**
+     * Validates a requested page size.
+     *
+     * @param size the requested page size
+     * @return the page size capped at {@link #MAX_PAGE_SIZE}
+     * @throws IllegalArgumentException if the size is not positive
+     */
+    static int pageSize(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Builds a page response. When the page is full, the ID of its last item is returned
+     * in the {@value #NEXT_CURSOR_HEADER} header to be passed as {@code after} for the next page.
+     *
+     * @param items the page items
+     * @param size  the requested page size
+     * @param idOf  extracts the cursor ID from an item
+     * @return the page response
+     */
+    static <T> ResponseEntity<List<T>> page(List<T> items, int size, Function<T, Long> idOf) {
+        return cursorPage(items, size, item -> String.valueOf(idOf.apply(item)));
+    }
+
+    /**
+     * Builds a page response. When the page is full, the cursor of its last item is returned
+     * in the {@value #NEXT_CURSOR_HEADER} header to be passed as {@code after} for the next page.
+     *
+     * @param items    the page items
+     * @param size     the requested page size
+     * @param cursorOf extracts the cursor from an item
+     * @return the page response
+     */
+    static <T> ResponseEntity<List<T>> cursorPage(List<T> items, int size, Function<T, String> cursorOf) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (items.size() == size) {
+            response.header(NEXT_CURSOR_HEADER, cursorOf.apply(items.get(items.size() - 1)));
+        }
+        return response.body(items);
+    }
+
+    /**
+     * Builds a response that writes a JSON array item by item as the producer emits them.
+     *
+     * @param objectMapper the mapper used to serialize items
+     * @param producer     feeds every item to the given consumer
+     * @return the streaming response
+     */
+    static <T> ResponseEntity<StreamingResponseBody> jsonArray(ObjectMapper objectMapper, Consumer<Consumer<T>> producer) {
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+                generator.writeStartArray();
+                producer.accept(item -> {
+                    try {
+                        generator.writeObject(item);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.accounting_system.controllers;
+
+import com.example.accounting_system.dtos.CategorySummaryDto;
+import com.example.accounting_system.entities.Debt;
+import com.example.accounting_system.entities.Transaction;
+import com.example.accounting_system.services.ReactiveReadService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Read-only endpoints served without blocking a request thread. The {@code /stream} endpoints write
+ * newline-delimited JSON and only fetch more rows once the client has consumed the previous ones.
+ */
+@RestController
+@RequestMapping("/api/v1/reactive")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*", exposedHeaders = {ListResponses.NEXT_CURSOR_HEADER, HttpHeaders.ETAG})
+public class ReactiveReadController {
+    private final ReactiveReadService reactiveReadService;
+
+    @GetMapping("/balance")
+    public Mono<BigDecimal> getCurrentBalance() {
+        return reactiveReadService.getBalance();
+    }
+
+    @GetMapping("/transactions")
+    public Mono<ResponseEntity<List<Transaction>>> getTransactions(@RequestParam(value = "after", required = false) Long afterId,
+                                                                   @RequestParam(value = "size", defaultValue = ListResponses.DEFAULT_PAGE_SIZE) int size) {
+        int pageSize = ListResponses.pageSize(size);
+        return reactiveReadService.getTransactions(null, afterId, pageSize).collectList()
+                .map(transactions -> ListResponses.page(transactions, pageSize, Transaction::getId));
+    }
+
+    @GetMapping(value = "/transactions/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Transaction> streamTransactions(@RequestParam(value = "after", required = false) Long afterId,
+                                                @RequestParam(value = "category", required = false) String category) {
+        return reactiveReadService.getTransactions(category, afterId, null);
+    }
+
+    @GetMapping("/debts")
+    public Mono<ResponseEntity<List<Debt>>> getDebts(@RequestParam(value = "after", required = false) Long afterId,
+                                                     @RequestParam(value = "size", defaultValue = ListResponses.DEFAULT_PAGE_SIZE) int size) {
+        int pageSize = ListResponses.pageSize(size);
+        return reactiveReadService.getDebts(null, afterId, pageSize).collectList()
+                .map(debts -> ListResponses.page(debts, pageSize, Debt::getId));
+    }
+
+    @GetMapping(value = "/debts/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Debt> streamDebts(@RequestParam(value = "after", required = false) Long afterId,
+                                  @RequestParam(value = "category", required = false) String category) {
+        return reactiveReadService.getDebts(category, afterId, null);
+    }
+
+    @GetMapping("/categories/summary")
+    public Flux<CategorySummaryDto> getCategorySummaries() {
+        return reactiveReadService.getCategorySummaries();
+    }
+
+    @GetMapping("/categories/{category}/summary")
+    public Flux<CategorySummaryDto> getCategorySummary(@PathVariable("category") String category) {
+        return reactiveReadService.getCategorySummary(category);
+    }
+
+    @GetMapping("/categories/{category}/transactions")
+    public Mono<ResponseEntity<List<Transaction>>> getTransactionsByCategory(@PathVariable("category") String category,
+                                                                             @RequestParam(value = "after", required = false) Long afterId,
+                                                                             @RequestParam(value = "size", defaultValue = ListResponses.DEFAULT_PAGE_SIZE) int size) {
+        int pageSize = ListResponses.pageSize(size);
+        return reactiveReadService.getTransactions(category, afterId, pageSize).collectList()
+                .map(transactions -> ListResponses.page(transactions, pageSize, Transaction::getId));
+    }
+
+    @GetMapping("/categories/{category}/debts")
+    public Mono<ResponseEntity<List<Debt>>> getDebtsByCategory(@PathVariable("category") String category,
+                                                               @RequestParam(value = "after", required = false) Long afterId,
+                                                               @RequestParam(value = "size", defaultValue = ListResponses.DEFAULT_PAGE_SIZE) int size) {
+        int pageSize = ListResponses.pageSize(size);
+        return reactiveReadService.getDebts(category, afterId, pageSize).collectList()
+                .map(debts -> ListResponses.page(debts, pageSize, Debt::getId));
+    }
+}
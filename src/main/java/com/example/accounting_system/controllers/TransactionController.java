@@ -1,38 +1,83 @@
 package com.example.accounting_system.controllers;
 
+import com.example.accounting_system.dtos.BalanceStatisticDto;
+import com.example.accounting_system.dtos.LedgerJournalStateDto;
 import com.example.accounting_system.dtos.TransactionDto;
-import com.example.accounting_system.entities.Balance;
+import com.example.accounting_system.dtos.TransactionImportResultDto;
+import com.example.accounting_system.dtos.TransactionSearchDto;
+import com.example.accounting_system.entities.BalanceResolution;
 import com.example.accounting_system.entities.Transaction;
-import com.example.accounting_system.services.DebtService;
-import com.example.accounting_system.services.PaymentService;
+import com.example.accounting_system.entities.TransactionSort;
+import com.example.accounting_system.services.BalanceProvider;
+import com.example.accounting_system.services.BalanceSnapshotService;
+import com.example.accounting_system.services.LedgerJournal;
+import com.example.accounting_system.services.LedgerService;
+import com.example.accounting_system.services.TransactionBatchService;
+import com.example.accounting_system.services.TransactionIngestionQueue;
+import com.example.accounting_system.services.TransactionSearchService;
 import com.example.accounting_system.services.TransactionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/v1/transaction")
 @RequiredArgsConstructor
-@CrossOrigin("*")
+@CrossOrigin(origins = "*", exposedHeaders = {ListResponses.NEXT_CURSOR_HEADER, HttpHeaders.ETAG})
 public class TransactionController {
 
     private final TransactionService transactionService;
-    private final PaymentService paymentService;
-    private final DebtService debtService;
+    private final LedgerService ledgerService;
+    private final BalanceProvider balanceProvider;
+    private final BalanceSnapshotService balanceSnapshotService;
+    private final LedgerJournal ledgerJournal;
+    private final TransactionBatchService transactionBatchService;
+    private final TransactionIngestionQueue transactionIngestionQueue;
+    private final TransactionSearchService transactionSearchService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping("/balance")
     public ResponseEntity<BigDecimal> getCurrentBalance() {
-        BigDecimal transactionBalance = transactionService.getCurrentBalance();
-        BigDecimal paymentBalance = paymentService.getCurrentBalance();
-        BigDecimal debtBalance = debtService.getCurrentBalance();
+        return ResponseEntity.ok(balanceProvider.getBalance());
+    }
+
+    @GetMapping(value = "/balance", params = "asOf")
+    public ResponseEntity<BigDecimal> getBalanceAsOf(
+            @RequestParam("asOf") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf) {
+        return ResponseEntity.ok(balanceSnapshotService.getBalanceAsOf(asOf));
+    }
+
+    @GetMapping("/balance/journal")
+    public ResponseEntity<LedgerJournalStateDto> getJournaledBalance() {
+        if (!ledgerJournal.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(ledgerJournal.getState());
+    }
 
-        BigDecimal totalBalance = transactionBalance.add(paymentBalance).add(debtBalance);
+    @PostMapping("/balance/recalculate")
+    public ResponseEntity<BigDecimal> recalculateBalance() {
+        return ResponseEntity.ok(ledgerService.recalculate());
+    }
 
-        return ResponseEntity.ok(totalBalance);
+    @PostMapping("/balance/backfill")
+    public ResponseEntity<Integer> backfillBalanceSnapshots() {
+        return ResponseEntity.ok(balanceSnapshotService.backfillMissingSnapshots());
     }
 
     @GetMapping("/{id}")
@@ -41,14 +86,42 @@ public class TransactionController {
     }
 
     @GetMapping("/balance-stats")
-    public ResponseEntity<List<Balance>> getBalanceStatistics() {
-        return ResponseEntity.ok(transactionService.getBalanceStatistics());
+    public ResponseEntity<List<BalanceStatisticDto>> getBalanceStatistics(
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "resolution", defaultValue = "day") String resolution) {
+        LocalDate rangeEnd = to != null ? to : LocalDate.now();
+        LocalDate rangeStart = from != null ? from : rangeEnd.minusYears(1);
+        BalanceResolution balanceResolution = BalanceResolution.valueOf(resolution.toUpperCase());
+        return ResponseEntity.ok(transactionService.getBalanceStatistics(rangeStart, rangeEnd, balanceResolution));
     }
 
     @PostMapping
-    public ResponseEntity<Transaction> createTransaction(@RequestBody TransactionDto transactionDto) {
-        Transaction createdTransaction = transactionService.addTransaction(transactionDto);
-        return new ResponseEntity<>(createdTransaction, HttpStatus.CREATED);
+    public CompletableFuture<ResponseEntity<Transaction>> createTransaction(@RequestBody TransactionDto transactionDto) {
+        // With ingestion enabled the response is sent once the batch containing the transaction is committed
+        CompletableFuture<Transaction> createdTransaction = transactionIngestionQueue.isEnabled()
+                ? transactionIngestionQueue.submit(transactionDto)
+                : CompletableFuture.completedFuture(transactionService.addTransaction(transactionDto));
+        return createdTransaction.thenApply(transaction -> new ResponseEntity<>(transaction, HttpStatus.CREATED));
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<TransactionImportResultDto> importTransactions(@RequestBody List<TransactionDto> transactionDtos) {
+        return new ResponseEntity<>(transactionBatchService.importTransactions(transactionDtos), HttpStatus.CREATED);
+    }
+
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<TransactionImportResultDto> importTransactionsCsv(InputStream csv) {
+        List<TransactionDto> transactionDtos = transactionBatchService.readCsv(csv);
+        return new ResponseEntity<>(transactionBatchService.importTransactions(transactionDtos), HttpStatus.CREATED);
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<TransactionImportResultDto> importTransactionsFile(@RequestParam("file") MultipartFile file) throws IOException {
+        try (InputStream csv = file.getInputStream()) {
+            List<TransactionDto> transactionDtos = transactionBatchService.readCsv(csv);
+            return new ResponseEntity<>(transactionBatchService.importTransactions(transactionDtos), HttpStatus.CREATED);
+        }
     }
 
     @PutMapping("/{id}")
@@ -59,8 +132,35 @@ public class TransactionController {
     }
 
     @GetMapping
-    public ResponseEntity<List<Transaction>> getAllTransactions() {
-        return ResponseEntity.ok(transactionService.getAllTransactions());
+    public ResponseEntity<List<Transaction>> getAllTransactions(@RequestParam(value = "after", required = false) Long afterId,
+                                                                @RequestParam(value = "size", defaultValue = ListResponses.DEFAULT_PAGE_SIZE) int size) {
+        int pageSize = ListResponses.pageSize(size);
+        return ListResponses.page(transactionService.getTransactionsPage(afterId, pageSize), pageSize, Transaction::getId);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<Transaction>> searchTransactions(
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "minAmount", required = false) BigDecimal minAmount,
+            @RequestParam(value = "maxAmount", required = false) BigDecimal maxAmount,
+            @RequestParam(value = "category", required = false) String category,
+            @RequestParam(value = "text", required = false) String text,
+            @RequestParam(value = "sort", defaultValue = "id") String sort,
+            @RequestParam(value = "direction", defaultValue = "asc") String direction,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "size", defaultValue = ListResponses.DEFAULT_PAGE_SIZE) int size) {
+        int pageSize = ListResponses.pageSize(size);
+        TransactionSort transactionSort = TransactionSort.valueOf(sort.toUpperCase());
+        TransactionSearchDto search = new TransactionSearchDto(from, to, minAmount, maxAmount, category, text,
+                transactionSort, Sort.Direction.fromString(direction));
+        return ListResponses.cursorPage(transactionSearchService.search(search, after, pageSize), pageSize,
+                transaction -> TransactionSearchService.cursorOf(transaction, transactionSort));
+    }
+
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamAllTransactions() {
+        return ListResponses.jsonArray(objectMapper, transactionService::streamAllTransactions);
     }
 
     @DeleteMapping("/{id}")
@@ -0,0 +1,13 @@
+package com.example.accounting_system.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+@Getter
+@AllArgsConstructor
+public class AmountTotalDto {
+    private Long count;
+    private BigDecimal total; // null when there are no rows
+}
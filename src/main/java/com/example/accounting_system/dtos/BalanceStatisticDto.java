@@ -0,0 +1,16 @@
+package com.example.accounting_system.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Getter
+@AllArgsConstructor
+public class BalanceStatisticDto {
+    private LocalDate date; // the day, or the first day of the week/month/year
+    private BigDecimal balanceAmount; // closing balance of the period
+    private BigDecimal minAmount;
+    private BigDecimal maxAmount;
+}
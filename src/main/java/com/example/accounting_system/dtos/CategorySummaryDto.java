@@ -0,0 +1,20 @@
+package com.example.accounting_system.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+@Getter
+@AllArgsConstructor
+public class CategorySummaryDto {
+    private String type; // "transaction" or "debt"
+    private String category;
+    private Long count;
+    private BigDecimal totalAmount;
+    private BigDecimal minAmount;
+    private BigDecimal maxAmount;
+    private Date firstDate;
+    private Date lastDate;
+}
@@ -0,0 +1,16 @@
+package com.example.accounting_system.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Getter
+@AllArgsConstructor
+public class InstallmentDto {
+    private int number; // 1-based position in the schedule
+    private LocalDate date;
+    private BigDecimal amount;
+    private boolean last;
+}
@@ -0,0 +1,17 @@
+package com.example.accounting_system.dtos;
+
+import com.example.accounting_system.events.LedgerEventType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+@Getter
+@AllArgsConstructor
+public class LedgerJournalStateDto {
+    private long sequence; // sequence number of the last journaled event
+    private BigDecimal balance;
+    private Map<LedgerEventType, Long> eventCounts;
+    private Map<LedgerEventType, BigDecimal> eventAmounts;
+}
@@ -0,0 +1,16 @@
+package com.example.accounting_system.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+@Getter
+@AllArgsConstructor
+public class PaymentViewDto {
+    private Long id;
+    private Date date;
+    private BigDecimal amount;
+    private Long debtId;
+}
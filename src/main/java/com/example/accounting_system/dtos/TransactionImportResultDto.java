@@ -0,0 +1,15 @@
+package com.example.accounting_system.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+@Getter
+@AllArgsConstructor
+public class TransactionImportResultDto {
+    private int importedCount;
+    private int incomeCount;
+    private int outcomeCount;
+    private BigDecimal totalAmount;
+}
@@ -0,0 +1,22 @@
+package com.example.accounting_system.dtos;
+
+import com.example.accounting_system.entities.TransactionSort;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Getter
+@AllArgsConstructor
+public class TransactionSearchDto {
+    private LocalDate from; // first date to include, or null
+    private LocalDate to; // last date to include, or null
+    private BigDecimal minAmount;
+    private BigDecimal maxAmount;
+    private String category;
+    private String text; // searched in the comment, case-insensitive
+    private TransactionSort sort;
+    private Sort.Direction direction;
+}
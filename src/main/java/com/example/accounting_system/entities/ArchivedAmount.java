@@ -0,0 +1,17 @@
+package com.example.accounting_system.entities;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Entity
+@Data
+@Table(name = "archived_amounts")
+public class ArchivedAmount {
+    @Id
+    private LocalDate day;
+    private BigDecimal amount; // net amount of the archived transactions dated on the day
+    private Long rowCount;
+}
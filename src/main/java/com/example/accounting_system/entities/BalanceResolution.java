@@ -0,0 +1,26 @@
+package com.example.accounting_system.entities;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+public enum BalanceResolution {
+    DAY,
+    WEEK,
+    MONTH,
+    YEAR;
+
+    /**
+     * Returns the first day of the period containing a date. Weeks start on Monday, as in Postgres date_trunc.
+     *
+     * @param date the date
+     * @return the first day of its period
+     */
+    public LocalDate periodStart(LocalDate date) {
+        return switch (this) {
+            case DAY -> date;
+            case WEEK -> date.with(DayOfWeek.MONDAY);
+            case MONTH -> date.withDayOfMonth(1);
+            case YEAR -> date.withDayOfYear(1);
+        };
+    }
+}
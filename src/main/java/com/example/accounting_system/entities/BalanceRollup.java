@@ -0,0 +1,23 @@
+package com.example.accounting_system.entities;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Entity
+@Data
+@Table(name = "balance_rollup")
+public class BalanceRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Enumerated(EnumType.STRING)
+    private BalanceResolution resolution;
+    private LocalDate periodStart;
+    private LocalDate lastDate; // date of the balance the closing amount was taken from
+    private BigDecimal balanceAmount; // closing balance of the period
+    private BigDecimal minAmount;
+    private BigDecimal maxAmount;
+}
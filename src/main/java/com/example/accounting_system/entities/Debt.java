@@ -5,8 +5,11 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.Date;
 
 @Entity
@@ -15,6 +18,8 @@ import java.util.Date;
 @Setter
 @Getter
 @Table(name = "debts")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Debt {
 
     @Id
@@ -30,4 +35,5 @@ public class Debt {
     private boolean isNotified;
     private String email;
     private String reminder;
+    private LocalDate nextReminderDate; // next installment date to check for a reminder, null when none is left
 }
@@ -0,0 +1,25 @@
+package com.example.accounting_system.entities;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Setter
+@Getter
+@Table(name = "ledger_balance")
+public class LedgerBalance {
+    public static final Long LEDGER_ID = 1L;
+
+    @Id
+    private Long id;
+    private BigDecimal balanceAmount;
+}
@@ -0,0 +1,8 @@
+package com.example.accounting_system.entities;
+
+public enum OutboxStatus {
+    PENDING,
+    SENDING,
+    SENT,
+    FAILED
+}
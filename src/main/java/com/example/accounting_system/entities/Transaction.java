@@ -5,6 +5,9 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.SQLSelect;
 
 import java.math.BigDecimal;
 import java.util.Date;
@@ -15,10 +18,22 @@ import java.util.Date;
 @Setter
 @Getter
 @Table(name = "transactions")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+// Loads by id through the key table, which reads the single partition holding the row
+@SQLSelect(sql = "select t.id, t.amount, t.category, t.date, t.comment from " + Transaction.KEYED_TRANSACTIONS + " where k.id = ?",
+        querySpaces = {"transactions", "transaction_keys"})
 public class Transaction {
+    /**
+     * Transactions joined to their keys, for lookups by id ({@code k.id}) or by category and id ({@code k.category}).
+     * The join on the date lets the database read only the partition of each row, or the default one for rows without a date.
+     */
+    public static final String KEYED_TRANSACTIONS = "transaction_keys k join transactions t on t.id = k.id " +
+            "and (t.date = k.date or k.date is null and t.date is null)";
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+    @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_seq", allocationSize = 50)
     private Long id;
     private Date date;
     private String category;
@@ -0,0 +1,22 @@
+package com.example.accounting_system.entities;
+
+public enum TransactionSort {
+    ID("t.id"),
+    DATE("t.date"),
+    AMOUNT("t.amount");
+
+    private final String column;
+
+    TransactionSort(String column) {
+        this.column = column;
+    }
+
+    /**
+     * Returns the column sorted on, qualified with the {@code t} alias of the transactions table.
+     *
+     * @return the sort column
+     */
+    public String getColumn() {
+        return column;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.accounting_system.events;
+
+import java.math.BigDecimal;
+
+/**
+ * Published whenever the ledger changes.
+ *
+ * @param type     the kind of change
+ * @param entityId the ID of the changed transaction, payment or debt, or null
+ * @param amount   the amount that was added to the balance, or the new balance if the type sets the balance
+ */
+public record LedgerChangedEvent(LedgerEventType type, Long entityId, BigDecimal amount) {
+}
@@ -0,0 +1,49 @@
+package com.example.accounting_system.events;
+
+/**
+ * Kinds of ledger changes. The code identifies the type in the ledger journal and must never be reused.
+ */
+public enum LedgerEventType {
+    JOURNAL_OPENED(1),
+    TRANSACTION_ADDED(2),
+    TRANSACTION_UPDATED(3),
+    TRANSACTION_REMOVED(4),
+    TRANSACTIONS_IMPORTED(5),
+    PAYMENT_APPLIED(6),
+    PAYMENT_UPDATED(7),
+    DEBT_CREATED(8),
+    DEBT_UPDATED(9),
+    BALANCE_RECALCULATED(10);
+
+    private final byte code;
+
+    LedgerEventType(int code) {
+        this.code = (byte) code;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    /**
+     * Resolves a type from its journal code.
+     *
+     * @param code the journal code
+     * @return the type, or null if the code is unknown
+     */
+    public static LedgerEventType fromCode(byte code) {
+        for (LedgerEventType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Whether the amount of the event replaces the balance instead of being added to it.
+     */
+    public boolean setsBalance() {
+        return this == JOURNAL_OPENED || this == BALANCE_RECALCULATED;
+    }
+}
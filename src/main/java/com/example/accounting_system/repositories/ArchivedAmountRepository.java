@@ -0,0 +1,14 @@
+package com.example.accounting_system.repositories;
+
+import com.example.accounting_system.dtos.AmountTotalDto;
+import com.example.accounting_system.entities.ArchivedAmount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDate;
+
+public interface ArchivedAmountRepository extends JpaRepository<ArchivedAmount, LocalDate> {
+
+    @Query("select new com.example.accounting_system.dtos.AmountTotalDto(coalesce(sum(a.rowCount), 0L), sum(a.amount)) from ArchivedAmount a")
+    AmountTotalDto totalAmount();
+}
@@ -3,5 +3,14 @@ package com.example.accounting_system.repositories;
 import com.example.accounting_system.entities.Balance;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
 public interface BalanceRepository extends JpaRepository<Balance, Long> {
+    List<Balance> findAllByDateBetweenOrderByDateAsc(LocalDate from, LocalDate to);
+
+    Optional<Balance> findFirstByDateLessThanEqualOrderByDateDesc(LocalDate date);
+
+    Optional<Balance> findFirstByDateGreaterThanOrderByDateAsc(LocalDate date);
 }
@@ -0,0 +1,41 @@
+package com.example.accounting_system.repositories;
+
+import com.example.accounting_system.entities.BalanceResolution;
+import com.example.accounting_system.entities.BalanceRollup;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.hibernate.jpa.HibernateHints.HINT_NATIVE_SPACES;
+
+public interface BalanceRollupRepository extends JpaRepository<BalanceRollup, Long> {
+
+    List<BalanceRollup> findAllByResolutionAndPeriodStartBetweenOrderByPeriodStartAsc(BalanceResolution resolution,
+                                                                                     LocalDate from, LocalDate to);
+
+    /**
+     * Merges a daily balance into the rollup of its period. The closing amount is only replaced by a later date,
+     * so balances can be merged in any order. The query space keeps Hibernate from evicting unrelated cache regions.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "balance_rollup"))
+    @Query(value = "INSERT INTO balance_rollup (resolution, period_start, last_date, balance_amount, min_amount, max_amount) " +
+            "VALUES (:resolution, :periodStart, :date, :amount, :amount, :amount) " +
+            "ON CONFLICT (resolution, period_start) DO UPDATE SET " +
+            "balance_amount = CASE WHEN excluded.last_date >= balance_rollup.last_date " +
+            "THEN excluded.balance_amount ELSE balance_rollup.balance_amount END, " +
+            "last_date = GREATEST(balance_rollup.last_date, excluded.last_date), " +
+            "min_amount = LEAST(balance_rollup.min_amount, excluded.min_amount), " +
+            "max_amount = GREATEST(balance_rollup.max_amount, excluded.max_amount)", nativeQuery = true)
+    void mergeBalance(@Param("resolution") String resolution,
+                      @Param("periodStart") LocalDate periodStart,
+                      @Param("date") LocalDate date,
+                      @Param("amount") BigDecimal amount);
+}
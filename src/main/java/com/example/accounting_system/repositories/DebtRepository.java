@@ -1,10 +1,79 @@
 package com.example.accounting_system.repositories;
 
+import com.example.accounting_system.dtos.AmountTotalDto;
+import com.example.accounting_system.dtos.CategorySummaryDto;
 import com.example.accounting_system.entities.Debt;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_NATIVE_SPACES;
 
 public interface DebtRepository extends JpaRepository<Debt, Long> {
+    // Query space of the native debt updates, matching no entity table so no cache region is evicted
+    String DEBT_STATE_SPACE = "debt_state";
+
     List<Debt> findAllByCategory(String category);
+
+    @Query("select new com.example.accounting_system.dtos.AmountTotalDto(count(d), sum(d.receivedAmount)) from Debt d")
+    AmountTotalDto totalReceivedAmount();
+
+    /**
+     * Subtracts a payment from the return amount if the remaining amount covers it, closing the debt
+     * when nothing is left. Check and update happen in one statement, so concurrent payments cannot be lost.
+     * A JPQL update would evict the whole Debt cache region, this native update is synchronized on a query
+     * space of its own and the caller evicts the single debt.
+     *
+     * @return 1 if the payment was applied, 0 if the debt does not exist or the amount exceeds the return amount
+     */
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = DEBT_STATE_SPACE))
+    @Query(value = "update debts set return_amount = return_amount - :amount, " +
+            "debt_status = case when return_amount - :amount <= 0 then true else debt_status end, " +
+            "is_notified = case when return_amount - :amount <= 0 then false else is_notified end, " +
+            "next_reminder_date = case when return_amount - :amount <= 0 then null else next_reminder_date end " +
+            "where id = :id and return_amount >= :amount", nativeQuery = true)
+    int applyPayment(@Param("id") Long id, @Param("amount") BigDecimal amount);
+
+    /**
+     * Sets the notification settings of all open debts. Like {@link #applyPayment}, the update leaves the cache
+     * alone, and the caller evicts the debt region.
+     *
+     * @return the number of updated debts
+     */
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = DEBT_STATE_SPACE))
+    @Query(value = "update debts set is_notified = :notified, email = :email where debt_status = false", nativeQuery = true)
+    int updateNotificationOfOpenDebts(@Param("notified") boolean notified, @Param("email") String email);
+
+    @Query("select d from Debt d where d.nextReminderDate <= :date and d.isNotified = true and d.debtStatus = false")
+    List<Debt> findAllDueForReminder(@Param("date") LocalDate date);
+
+    @Query("select new com.example.accounting_system.dtos.CategorySummaryDto('debt', d.category, count(d), " +
+            "sum(d.receivedAmount), min(d.receivedAmount), max(d.receivedAmount), min(d.startDate), max(d.startDate)) " +
+            "from Debt d group by d.category order by d.category")
+    List<CategorySummaryDto> summarizeByCategory();
+
+    @Query("select new com.example.accounting_system.dtos.CategorySummaryDto('debt', d.category, count(d), " +
+            "sum(d.receivedAmount), min(d.receivedAmount), max(d.receivedAmount), min(d.startDate), max(d.startDate)) " +
+            "from Debt d where d.category = :category group by d.category")
+    List<CategorySummaryDto> summarizeCategory(@Param("category") String category);
+
+    List<Debt> findByCategoryAndIdGreaterThanOrderByIdAsc(String category, Long id, Pageable pageable);
+
+    List<Debt> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select d from Debt d order by d.id")
+    Stream<Debt> streamAll();
 }
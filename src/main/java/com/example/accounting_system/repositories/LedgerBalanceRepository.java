@@ -0,0 +1,20 @@
+package com.example.accounting_system.repositories;
+
+import com.example.accounting_system.entities.LedgerBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+
+public interface LedgerBalanceRepository extends JpaRepository<LedgerBalance, Long> {
+
+    @Modifying
+    @Query("update LedgerBalance l set l.balanceAmount = l.balanceAmount + :delta where l.id = :id")
+    int addToBalance(@Param("id") Long id, @Param("delta") BigDecimal delta);
+
+    @Modifying
+    @Query("update LedgerBalance l set l.balanceAmount = :amount where l.id = :id")
+    int setBalance(@Param("id") Long id, @Param("amount") BigDecimal amount);
+}
@@ -1,10 +1,36 @@
 package com.example.accounting_system.repositories;
 
+import com.example.accounting_system.dtos.AmountTotalDto;
+import com.example.accounting_system.dtos.PaymentViewDto;
 import com.example.accounting_system.entities.Payment;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
     List<Payment> findAllByDebtId(Long id);
+
+    @Query("select new com.example.accounting_system.dtos.PaymentViewDto(p.id, p.date, p.amount, p.debt.id) " +
+            "from Payment p where p.debt.id = :debtId order by p.id")
+    List<PaymentViewDto> findViewsByDebtId(@Param("debtId") Long debtId);
+
+    @Query("select new com.example.accounting_system.dtos.AmountTotalDto(count(p), sum(p.amount)) from Payment p")
+    AmountTotalDto totalAmount();
+
+    @Query("select new com.example.accounting_system.dtos.PaymentViewDto(p.id, p.date, p.amount, p.debt.id) " +
+            "from Payment p where p.id > :id order by p.id")
+    List<PaymentViewDto> findViewPageAfterId(@Param("id") Long id, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.example.accounting_system.dtos.PaymentViewDto(p.id, p.date, p.amount, p.debt.id) " +
+            "from Payment p order by p.id")
+    Stream<PaymentViewDto> streamAllViews();
 }
@@ -0,0 +1,25 @@
+package com.example.accounting_system.repositories;
+
+import com.example.accounting_system.entities.OutboxStatus;
+import com.example.accounting_system.entities.ReminderOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ReminderOutboxRepository extends JpaRepository<ReminderOutbox, Long> {
+
+    @Query(value = "SELECT * FROM reminder_outbox WHERE status = 'PENDING' AND next_attempt_at <= :now " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<ReminderOutbox> lockPending(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("update ReminderOutbox r set r.status = :pending, r.lockedAt = null " +
+            "where r.status = :sending and r.lockedAt < :lockedBefore")
+    int releaseStale(@Param("sending") OutboxStatus sending,
+                     @Param("pending") OutboxStatus pending,
+                     @Param("lockedBefore") LocalDateTime lockedBefore);
+}
@@ -1,10 +1,44 @@
 package com.example.accounting_system.repositories;
 
+import com.example.accounting_system.dtos.AmountTotalDto;
+import com.example.accounting_system.dtos.CategorySummaryDto;
 import com.example.accounting_system.entities.Transaction;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
     List<Transaction> findAllByCategory(String category);
+
+    @Query("select new com.example.accounting_system.dtos.AmountTotalDto(count(t), sum(t.amount)) from Transaction t")
+    AmountTotalDto totalAmount();
+
+    @Query("select new com.example.accounting_system.dtos.CategorySummaryDto('transaction', t.category, count(t), " +
+            "sum(t.amount), min(t.amount), max(t.amount), min(t.date), max(t.date)) " +
+            "from Transaction t group by t.category order by t.category")
+    List<CategorySummaryDto> summarizeByCategory();
+
+    @Query("select new com.example.accounting_system.dtos.CategorySummaryDto('transaction', t.category, count(t), " +
+            "sum(t.amount), min(t.amount), max(t.amount), min(t.date), max(t.date)) " +
+            "from Transaction t where t.category = :category group by t.category")
+    List<CategorySummaryDto> summarizeCategory(@Param("category") String category);
+
+    @Query(value = "select t.* from " + Transaction.KEYED_TRANSACTIONS +
+            " where k.category = :category and k.id > :id order by k.id limit :size", nativeQuery = true)
+    List<Transaction> findPageByCategoryAfterId(@Param("category") String category, @Param("id") Long id, @Param("size") int size);
+
+    @Query(value = "select t.* from " + Transaction.KEYED_TRANSACTIONS +
+            " where k.id > :id order by k.id limit :size", nativeQuery = true)
+    List<Transaction> findPageAfterId(@Param("id") Long id, @Param("size") int size);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select t from Transaction t order by t.id")
+    Stream<Transaction> streamAll();
 }
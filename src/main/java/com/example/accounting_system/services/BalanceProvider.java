@@ -0,0 +1,77 @@
+package com.example.accounting_system.services;
+
+import com.example.accounting_system.events.LedgerChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process source of the total balance shared by controllers and services.
+ * The value read from the ledger is cached for a short time and dropped as soon as a ledger change commits.
+ */
+@Component
+public class BalanceProvider {
+    private final LedgerService ledgerService;
+    private final Counter cacheReads;
+    private final Counter ledgerReads;
+    private final AtomicLong generation = new AtomicLong();
+    private volatile CachedBalance cached;
+    @Value("${ledger.balance-cache-ttl:5s}")
+    private Duration ttl;
+
+    public BalanceProvider(LedgerService ledgerService, MeterRegistry meterRegistry) {
+        this.ledgerService = ledgerService;
+        this.cacheReads = meterRegistry.counter("balance.reads", "source", "cache");
+        this.ledgerReads = meterRegistry.counter("balance.reads", "source", "ledger");
+    }
+
+    /**
+     * Retrieves the total balance, served from the cache while it is fresh.
+     *
+     * @return the total balance
+     */
+    public BigDecimal getBalance() {
+        CachedBalance current = cached;
+        long now = System.nanoTime();
+        if (current != null && current.generation() == generation.get() && now < current.expiresAt()) {
+            cacheReads.increment();
+            return current.balance();
+        }
+        ledgerReads.increment();
+
+        // Remember the generation before reading, so a value loaded concurrently with a commit is not cached
+        long loadGeneration = generation.get();
+        BigDecimal balance = ledgerService.getBalance();
+        if (loadGeneration == generation.get()) {
+            cached = new CachedBalance(balance, loadGeneration, now + ttl.toNanos());
+        }
+        return balance;
+    }
+
+    /**
+     * Drops the cached balance.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        cached = null;
+    }
+
+    /**
+     * Invalidates the cache once a ledger change is committed.
+     *
+     * @param event the ledger change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLedgerChanged(LedgerChangedEvent event) {
+        invalidate();
+    }
+
+    private record CachedBalance(BigDecimal balance, long generation, long expiresAt) {
+    }
+}
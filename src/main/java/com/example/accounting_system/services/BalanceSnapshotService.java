@@ -0,0 +1,456 @@
+package com.example.accounting_system.services;
+
+import com.example.accounting_system.entities.Balance;
+import com.example.accounting_system.entities.BalanceResolution;
+import com.example.accounting_system.repositories.BalanceRepository;
+import com.example.accounting_system.repositories.BalanceRollupRepository;
+import com.example.accounting_system.util.Money;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.annotation.Observed;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Stores one balance snapshot per day: the balance of all ledger rows (transactions - payments + received debts)
+ * dated before that day. Archived transactions count through their daily amounts. A snapshot is computed from the
+ * snapshot of the day before plus the rows dated on that day, so days missed while the application was down are
+ * rebuilt on the next run, in parallel chunks.
+ * <p>
+ * Writes dated before stored snapshots only queue their amount as a pending adjustment, within their own
+ * transaction. Balances as of a day add the pending adjustments to the stored snapshot, and a scheduled task
+ * applies them to the snapshots and rollups in the background, coalescing every write since its last run.
+ */
+@Service
+@Observed(name = "accounting.service")
+@Slf4j
+public class BalanceSnapshotService {
+    private static final String DAILY_AMOUNTS_SQL = "select day, sum(amount) as amount from (" +
+            "select date::date as day, amount from transactions where date >= :from and date < :to " +
+            "union all select date::date, -amount from payments where date >= :from and date < :to " +
+            "union all select start_date::date, received_amount from debts where start_date >= :from and start_date < :to " +
+            "union all select day, amount from archived_amounts where day >= :from and day < :to" +
+            ") ledger group by day";
+    private static final String BALANCE_BEFORE_SQL = "select " +
+            "(select coalesce(sum(amount), 0) from transactions where date < :date) " +
+            "- (select coalesce(sum(amount), 0) from payments where date < :date) " +
+            "+ (select coalesce(sum(received_amount), 0) from debts where start_date < :date) " +
+            "+ (select coalesce(sum(amount), 0) from archived_amounts where day < :date)";
+    private static final String BALANCE_BETWEEN_SQL = "select " +
+            "(select coalesce(sum(amount), 0) from transactions where date >= :from and date < :to) " +
+            "- (select coalesce(sum(amount), 0) from payments where date >= :from and date < :to) " +
+            "+ (select coalesce(sum(received_amount), 0) from debts where start_date >= :from and start_date < :to) " +
+            "+ (select coalesce(sum(amount), 0) from archived_amounts where day >= :from and day < :to)";
+    private static final String REFRESH_ROLLUPS_SQL = "update balance_rollup r set " +
+            "balance_amount = (select b.balance_amount from balance b where b.date = r.last_date), " +
+            "min_amount = (select min(b.balance_amount) from balance b where b.date between r.period_start and r.last_date), " +
+            "max_amount = (select max(b.balance_amount) from balance b where b.date between r.period_start and r.last_date) " +
+            "where r.period_start <= :day and r.last_date > :day";
+    // Taken shared by the writes queueing their amounts and exclusively by the backfill, so a snapshot is never
+    // computed without a write whose adjustment is then applied to it
+    private static final long SNAPSHOT_LOCK_KEY = 0x62616c616e6365L;
+    // Serializes applying the pending adjustments with the backfill
+    private static final long ADJUSTMENT_LOCK_KEY = 0x61646a757374L;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final BalanceRepository balanceRepository;
+    private final BalanceRollupRepository balanceRollupRepository;
+    private final MeterRegistry meterRegistry;
+    private final LedgerVersion ledgerVersion;
+    private final ExecutorService backfillExecutor;
+    private final int chunkDays;
+    private final int maxDays;
+    private final boolean backfillOnStartup;
+
+    public BalanceSnapshotService(DataSource dataSource,
+                                  BalanceRepository balanceRepository,
+                                  BalanceRollupRepository balanceRollupRepository,
+                                  MeterRegistry meterRegistry,
+                                  LedgerVersion ledgerVersion,
+                                  @Value("${balance.backfill.parallelism:4}") int parallelism,
+                                  @Value("${balance.backfill.chunk-days:31}") int chunkDays,
+                                  @Value("${balance.backfill.max-days:3660}") int maxDays,
+                                  @Value("${balance.backfill.on-startup:true}") boolean backfillOnStartup) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        this.balanceRepository = balanceRepository;
+        this.balanceRollupRepository = balanceRollupRepository;
+        this.meterRegistry = meterRegistry;
+        this.ledgerVersion = ledgerVersion;
+        this.backfillExecutor = Executors.newFixedThreadPool(parallelism);
+        this.chunkDays = chunkDays;
+        this.maxDays = maxDays;
+        this.backfillOnStartup = backfillOnStartup;
+    }
+
+    /**
+     * Scheduled task that stores the snapshot of the new day, together with any day missed before it.
+     */
+    @Scheduled(cron = "0 0 0 * * *") // Run daily at midnight
+    @Transactional
+    public void collectDailyBalance() {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            int written = backfill(LocalDate.now());
+            meterRegistry.summary("job.items", "job", "collectDailyBalance").record(written);
+        } finally {
+            sample.stop(meterRegistry.timer("job.duration", "job", "collectDailyBalance"));
+        }
+    }
+
+    /**
+     * Rebuilds the snapshots missed while the application was down.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillOnStartup() {
+        if (backfillOnStartup) {
+            backfill(LocalDate.now());
+        }
+    }
+
+    /**
+     * Rebuilds every missing snapshot up to today.
+     *
+     * @return the number of snapshots written
+     */
+    @Transactional
+    public int backfillMissingSnapshots() {
+        return backfill(LocalDate.now());
+    }
+
+    /**
+     * Scheduled task that applies the pending adjustments to the stored snapshots and their rollups.
+     */
+    @Scheduled(fixedDelayString = "${balance.adjustments.interval:PT10S}")
+    @Transactional
+    public void applyPendingAdjustments() {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            int applied = applyAdjustments();
+            meterRegistry.summary("job.items", "job", "applyPendingAdjustments").record(applied);
+        } finally {
+            sample.stop(meterRegistry.timer("job.duration", "job", "applyPendingAdjustments"));
+        }
+    }
+
+    /**
+     * Queues the amount of a ledger row written in the current transaction as an adjustment of the stored
+     * snapshots of the days after its date. Rows dated today or later change no snapshot.
+     *
+     * @param date   the date of the row, rows without one are in no snapshot
+     * @param amount the amount added to the balance, negative for outcomes, payments and removed rows
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyLedgerChange(Date date, BigDecimal amount) {
+        if (date != null && amount != null && amount.signum() != 0) {
+            applyLedgerChanges(Map.of(ledgerDay(date), Money.toCents(amount)));
+        }
+    }
+
+    /**
+     * Queues the amounts of ledger rows written in the current transaction as adjustments of the stored snapshots
+     * of the days after their dates, one row per day.
+     *
+     * @param dailyAmounts the net amount added to the balance per day of the rows, in cents
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyLedgerChanges(Map<LocalDate, Long> dailyAmounts) {
+        MapSqlParameterSource[] adjustments = dailyAmounts.entrySet().stream()
+                .filter(adjustment -> adjustment.getValue() != 0)
+                .map(adjustment -> new MapSqlParameterSource("day", adjustment.getKey())
+                        .addValue("amount", Money.toBigDecimal(adjustment.getValue())))
+                .toArray(MapSqlParameterSource[]::new);
+        if (adjustments.length == 0) {
+            return;
+        }
+        jdbcTemplate.getJdbcTemplate().execute("select pg_advisory_xact_lock_shared(" + SNAPSHOT_LOCK_KEY + ")");
+        jdbcTemplate.batchUpdate("insert into balance_adjustments (day, amount) values (:day, :amount)", adjustments);
+    }
+
+    /**
+     * Applies the committed pending adjustments to the stored snapshots and rollups, and removes them.
+     * Every snapshot is updated once, with the sum of the adjustments dated before it. Rollups of periods between
+     * two adjusted days are shifted by the same sum; only those of the periods containing an adjusted day are
+     * recomputed from their snapshots.
+     *
+     * @return the number of adjustments applied
+     */
+    private int applyAdjustments() {
+        jdbcTemplate.getJdbcTemplate().execute("select pg_advisory_xact_lock(" + ADJUSTMENT_LOCK_KEY + ")");
+        Map<LocalDate, Long> dailyAmounts = new TreeMap<>();
+        int[] count = new int[1];
+        jdbcTemplate.getJdbcTemplate().query("delete from balance_adjustments returning day, amount", rs -> {
+            dailyAmounts.merge(rs.getObject(1, LocalDate.class), Money.toCents(rs.getBigDecimal(2)), Math::addExact);
+            count[0]++;
+        });
+        if (dailyAmounts.isEmpty()) {
+            return 0;
+        }
+
+        List<LocalDate> days = new ArrayList<>(dailyAmounts.keySet());
+        List<MapSqlParameterSource> ranges = new ArrayList<>();
+        long cents = 0;
+        for (int i = 0; i < days.size(); i++) {
+            cents = Math.addExact(cents, dailyAmounts.get(days.get(i)));
+            if (cents != 0) {
+                // The last range is open-ended
+                ranges.add(new MapSqlParameterSource("from", days.get(i))
+                        .addValue("to", i + 1 < days.size() ? days.get(i + 1) : null, Types.DATE)
+                        .addValue("amount", Money.toBigDecimal(cents)));
+            }
+        }
+        MapSqlParameterSource[] rangeParameters = ranges.toArray(MapSqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate("update balance set balance_amount = balance_amount + :amount " +
+                "where date > :from and (date <= :to or cast(:to as date) is null)", rangeParameters);
+        jdbcTemplate.batchUpdate("update balance_rollup set balance_amount = balance_amount + :amount, " +
+                "min_amount = min_amount + :amount, max_amount = max_amount + :amount " +
+                "where period_start > :from and (last_date <= :to or cast(:to as date) is null)", rangeParameters);
+        jdbcTemplate.batchUpdate(REFRESH_ROLLUPS_SQL, days.stream()
+                .map(day -> new MapSqlParameterSource("day", day))
+                .toArray(MapSqlParameterSource[]::new));
+        ledgerVersion.increment();
+        log.info("Applied {} balance adjustments from {}", count[0], days.get(0));
+        return count[0];
+    }
+
+    /**
+     * Returns the day a ledger row counts for in the snapshots, the date part of its timestamp.
+     *
+     * @param date the date of the row
+     * @return the day of the row
+     */
+    public static LocalDate ledgerDay(Date date) {
+        Timestamp timestamp = date instanceof Timestamp t ? t : new Timestamp(date.getTime());
+        return timestamp.toLocalDateTime().toLocalDate();
+    }
+
+    /**
+     * Computes the balance at the end of a day, including the rows dated on it. The balance starts from the stored
+     * snapshot nearest to the day, with its pending adjustments, and is corrected by the rows dated between them,
+     * so with a snapshot per day at most a day of rows is read, whatever the length of the history.
+     * The repeatable read keeps the snapshot and its adjustments consistent while they are being applied.
+     *
+     * @param date the day
+     * @return the balance at the end of the day
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public BigDecimal getBalanceAsOf(LocalDate date) {
+        // The snapshot of the following day covers every row dated up to the end of this one
+        LocalDate end = date.plusDays(1);
+        Optional<Balance> before = balanceRepository.findFirstByDateLessThanEqualOrderByDateDesc(end);
+        Optional<Balance> after = balanceRepository.findFirstByDateGreaterThanOrderByDateAsc(end);
+
+        if (before.isPresent() && (after.isEmpty()
+                || ChronoUnit.DAYS.between(before.get().getDate(), end) <= ChronoUnit.DAYS.between(end, after.get().getDate()))) {
+            return snapshotAmount(before.get()).add(balanceBetween(before.get().getDate(), end));
+        }
+        if (after.isPresent()) {
+            return snapshotAmount(after.get()).subtract(balanceBetween(end, after.get().getDate()));
+        }
+        return Money.toBigDecimal(balanceBefore(end));
+    }
+
+    /**
+     * Returns the amount of a stored snapshot with the pending adjustments dated before it.
+     */
+    private BigDecimal snapshotAmount(Balance snapshot) {
+        return snapshot.getBalanceAmount().add(jdbcTemplate.queryForObject(
+                "select coalesce(sum(amount), 0) from balance_adjustments where day < :date",
+                new MapSqlParameterSource("date", snapshot.getDate()), BigDecimal.class));
+    }
+
+    /**
+     * Writes the missing snapshots between the first stored snapshot, or the first ledger row if there is none,
+     * and a day, going back at most {@code max-days}. The pending adjustments are applied first, the new snapshots
+     * are computed from the rows they already cover.
+     *
+     * @param today the last day to write a snapshot for
+     * @return the number of snapshots written
+     */
+    private int backfill(LocalDate today) {
+        jdbcTemplate.getJdbcTemplate().execute("select pg_advisory_xact_lock(" + SNAPSHOT_LOCK_KEY + ")");
+        applyAdjustments();
+        LocalDate start = jdbcTemplate.getJdbcTemplate().queryForObject("select coalesce((select min(date) from balance), " +
+                "least((select min(date) from transactions), (select min(date) from payments), (select min(start_date) from debts), " +
+                "(select min(day) from archived_amounts))::date)",
+                LocalDate.class);
+        if (start == null || start.isAfter(today)) {
+            return 0;
+        }
+        if (start.isBefore(today.minusDays(maxDays))) {
+            start = today.minusDays(maxDays);
+        }
+
+        Map<LocalDate, Long> stored = new HashMap<>();
+        jdbcTemplate.query("select date, balance_amount from balance where date between :from and :to",
+                new MapSqlParameterSource("from", start).addValue("to", today),
+                rs -> {
+                    stored.put(rs.getObject(1, LocalDate.class), Money.toCents(rs.getBigDecimal(2)));
+                });
+        List<LocalDate> missing = start.datesUntil(today.plusDays(1)).filter(day -> !stored.containsKey(day)).toList();
+        if (missing.isEmpty()) {
+            return 0;
+        }
+
+        long startCents = stored.containsKey(start) ? stored.get(start) : balanceBefore(start);
+        Map<LocalDate, Long> rebuilt = rebuild(start, startCents, stored, missing, loadDailyAmounts(start, missing));
+        save(rebuilt);
+        log.info("Stored {} balance snapshots from {} to {}", rebuilt.size(), missing.get(0), missing.get(missing.size() - 1));
+        return rebuilt.size();
+    }
+
+    /**
+     * Computes missing snapshots in date order, each from the snapshot of the day before plus the net amount
+     * of the rows dated on that day.
+     *
+     * @param start        the first day of the range
+     * @param startCents   the snapshot of the first day in cents
+     * @param stored       the stored snapshots in cents
+     * @param missing      the days without a snapshot, in ascending order
+     * @param dailyAmounts the net ledger amount per day in cents, days without rows may be left out
+     * @return the computed snapshots in cents, in date order
+     */
+    static Map<LocalDate, Long> rebuild(LocalDate start, long startCents, Map<LocalDate, Long> stored,
+                                        List<LocalDate> missing, Map<LocalDate, Long> dailyAmounts) {
+        Map<LocalDate, Long> balances = new HashMap<>(stored);
+        balances.put(start, startCents);
+        Map<LocalDate, Long> rebuilt = new TreeMap<>();
+        for (LocalDate day : missing) {
+            long cents = day.equals(start) ? startCents : Math.addExact(balances.get(day.minusDays(1)),
+                    dailyAmounts.getOrDefault(day.minusDays(1), 0L));
+            balances.put(day, cents);
+            rebuilt.put(day, cents);
+        }
+        return rebuilt;
+    }
+
+    /**
+     * Loads the net ledger amount of every day preceding a missing snapshot. Consecutive days are queried
+     * in chunks of {@code chunk-days}, and the chunks run in parallel.
+     */
+    private Map<LocalDate, Long> loadDailyAmounts(LocalDate start, List<LocalDate> missing) {
+        List<Future<Map<LocalDate, Long>>> chunks = new ArrayList<>();
+        LocalDate chunkStart = null;
+        LocalDate chunkEnd = null;
+        for (LocalDate day : missing) {
+            if (day.equals(start)) {
+                continue;
+            }
+            LocalDate previous = day.minusDays(1);
+            if (chunkStart != null && (!previous.equals(chunkEnd) || chunkEnd.isAfter(chunkStart.plusDays(chunkDays - 1)))) {
+                chunks.add(submitDailyAmounts(chunkStart, chunkEnd));
+                chunkStart = null;
+            }
+            if (chunkStart == null) {
+                chunkStart = previous;
+            }
+            chunkEnd = day;
+        }
+        if (chunkStart != null) {
+            chunks.add(submitDailyAmounts(chunkStart, chunkEnd));
+        }
+
+        Map<LocalDate, Long> dailyAmounts = new HashMap<>();
+        try {
+            for (Future<Map<LocalDate, Long>> chunk : chunks) {
+                dailyAmounts.putAll(chunk.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while loading daily ledger amounts", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Failed to load daily ledger amounts", e.getCause());
+        }
+        return dailyAmounts;
+    }
+
+    /**
+     * Sums the ledger rows per day from a day (inclusive) to another (exclusive) on the backfill executor.
+     */
+    private Future<Map<LocalDate, Long>> submitDailyAmounts(LocalDate from, LocalDate to) {
+        return backfillExecutor.submit(() -> {
+            Map<LocalDate, Long> amounts = new HashMap<>();
+            jdbcTemplate.query(DAILY_AMOUNTS_SQL, new MapSqlParameterSource("from", from).addValue("to", to), rs -> {
+                BigDecimal amount = rs.getBigDecimal(2);
+                if (amount != null) {
+                    amounts.put(rs.getObject(1, LocalDate.class), Money.toCents(amount));
+                }
+            });
+            return amounts;
+        });
+    }
+
+    /**
+     * Sums the ledger rows dated before a day.
+     *
+     * @param date the day
+     * @return the balance before the day in cents
+     */
+    private long balanceBefore(LocalDate date) {
+        return Money.toCents(jdbcTemplate.queryForObject(BALANCE_BEFORE_SQL, new MapSqlParameterSource("date", date), BigDecimal.class));
+    }
+
+    /**
+     * Sums the ledger rows dated from a day (inclusive) to another (exclusive).
+     *
+     * @param from the first day
+     * @param to   the day after the last one
+     * @return the net amount of the rows
+     */
+    private BigDecimal balanceBetween(LocalDate from, LocalDate to) {
+        return jdbcTemplate.queryForObject(BALANCE_BETWEEN_SQL, new MapSqlParameterSource("from", from).addValue("to", to), BigDecimal.class);
+    }
+
+    /**
+     * Inserts snapshots and merges them into the weekly, monthly and yearly rollups.
+     */
+    private void save(Map<LocalDate, Long> snapshots) {
+        MapSqlParameterSource[] rows = snapshots.entrySet().stream()
+                .map(snapshot -> new MapSqlParameterSource("date", snapshot.getKey())
+                        .addValue("amount", Money.toBigDecimal(snapshot.getValue())))
+                .toArray(MapSqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate("insert into balance (date, balance_amount) values (:date, :amount) on conflict (date) do nothing", rows);
+
+        snapshots.forEach((date, cents) -> {
+            for (BalanceResolution resolution : BalanceResolution.values()) {
+                if (resolution != BalanceResolution.DAY) {
+                    balanceRollupRepository.mergeBalance(resolution.name(), resolution.periodStart(date), date, Money.toBigDecimal(cents));
+                }
+            }
+        });
+        ledgerVersion.increment();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        backfillExecutor.shutdown();
+    }
+}
@@ -1,16 +1,20 @@
 package com.example.accounting_system.services;
 
+import com.example.accounting_system.dtos.CategorySummaryDto;
 import com.example.accounting_system.entities.Debt;
 import com.example.accounting_system.entities.Transaction;
 import com.example.accounting_system.repositories.DebtRepository;
 import com.example.accounting_system.repositories.TransactionRepository;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Service
+@Observed(name = "accounting.service")
 @RequiredArgsConstructor
 public class CategoryService {
 
@@ -39,4 +43,56 @@ public class CategoryService {
             return new ArrayList<>(debts);
         }
     }
+
+    /**
+     * Retrieves count, sum, min, max and date range of every transaction and debt category,
+     * aggregated by the database.
+     *
+     * @return the category summaries, transactions first
+     */
+    public List<CategorySummaryDto> getCategorySummaries() {
+        List<CategorySummaryDto> summaries = new ArrayList<>(transactionRepository.summarizeByCategory());
+        summaries.addAll(debtRepository.summarizeByCategory());
+        return summaries;
+    }
+
+    /**
+     * Retrieves the summary of a single category.
+     *
+     * @param category the category to summarize
+     * @return the transaction and debt summaries of the category
+     * @throws RuntimeException if no data is found for the category
+     */
+    public List<CategorySummaryDto> getCategorySummary(String category) {
+        List<CategorySummaryDto> summaries = new ArrayList<>(transactionRepository.summarizeCategory(category));
+        summaries.addAll(debtRepository.summarizeCategory(category));
+        if (summaries.isEmpty()) {
+            throw new RuntimeException("No data found for category: " + category);
+        }
+        return summaries;
+    }
+
+    /**
+     * Retrieves a page of transactions of a category ordered by ID, starting after the given cursor.
+     *
+     * @param category the category
+     * @param afterId  the ID of the last transaction of the previous page, or null for the first page
+     * @param size     the maximum number of transactions to return
+     * @return a page of transactions
+     */
+    public List<Transaction> getTransactionsByCategory(String category, Long afterId, int size) {
+        return transactionRepository.findPageByCategoryAfterId(category, afterId != null ? afterId : 0L, size);
+    }
+
+    /**
+     * Retrieves a page of debts of a category ordered by ID, starting after the given cursor.
+     *
+     * @param category the category
+     * @param afterId  the ID of the last debt of the previous page, or null for the first page
+     * @param size     the maximum number of debts to return
+     * @return a page of debts
+     */
+    public List<Debt> getDebtsByCategory(String category, Long afterId, int size) {
+        return debtRepository.findByCategoryAndIdGreaterThanOrderByIdAsc(category, afterId != null ? afterId : 0L, PageRequest.ofSize(size));
+    }
 }
@@ -1,32 +1,42 @@
 package com.example.accounting_system.services;
 
 import com.example.accounting_system.dtos.DebtDto;
+import com.example.accounting_system.dtos.InstallmentDto;
 import com.example.accounting_system.entities.Debt;
+import com.example.accounting_system.events.LedgerEventType;
 import com.example.accounting_system.repositories.DebtRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.annotation.Observed;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
-import java.time.ZoneId;
-import java.time.temporal.ChronoUnit;
-import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.Date;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
+@Observed(name = "accounting.service")
 @Log4j2
 @RequiredArgsConstructor
 public class DebtService {
     private final DebtRepository debtRepository;
-    private final JavaMailSender javaMailSender;
+    private final LedgerService ledgerService;
+    private final ReminderOutboxService reminderOutboxService;
+    private final PaymentScheduleService paymentScheduleService;
+    private final EntityManager entityManager;
+    private final MeterRegistry meterRegistry;
+    private final LedgerVersion ledgerVersion;
+    private final BalanceSnapshotService balanceSnapshotService;
 
     /**
      * Adds a new debt.
@@ -34,27 +44,17 @@ public class DebtService {
      * @param debtDto the DTO containing debt information
      * @return the created debt
      */
+    @Transactional
     public Debt addDebt(DebtDto debtDto) {
         // Convert DebtDto to Debt entity
         Debt debt = convertToDebt(debtDto);
+        refreshNextReminderDate(debt);
         // Save the debt
-        return debtRepository.save(debt);
-    }
-
-    /**
-     * Retrieves the current debt balance.
-     *
-     * @return the current debt balance
-     */
-    public BigDecimal getCurrentBalance() {
-        List<Debt> debts = debtRepository.findAll();
-        BigDecimal balance = BigDecimal.ZERO;
-
-        for (Debt debt : debts) {
-            balance = balance.add(debt.getReceivedAmount());
-        }
-
-        return balance;
+        Debt savedDebt = debtRepository.save(debt);
+        ledgerService.applyDelta(LedgerEventType.DEBT_CREATED, savedDebt.getId(), savedDebt.getReceivedAmount());
+        balanceSnapshotService.applyLedgerChange(savedDebt.getStartDate(), savedDebt.getReceivedAmount());
+        ledgerVersion.increment();
+        return savedDebt;
     }
 
     /**
@@ -65,11 +65,16 @@ public class DebtService {
      * @return the updated debt
      * @throws RuntimeException if the debt is not found
      */
+    @Transactional
     public Debt updateDebt(Long debtId, DebtDto debtDto) {
         // Find the debt by ID
         Debt existingDebt = debtRepository.findById(debtId)
                 .orElseThrow(() -> new RuntimeException("Debt not found with ID: " + debtId));
 
+        BigDecimal previousReceivedAmount = existingDebt.getReceivedAmount();
+        balanceSnapshotService.applyLedgerChange(existingDebt.getStartDate(), previousReceivedAmount.negate());
+        balanceSnapshotService.applyLedgerChange(debtDto.getStartDate(), debtDto.getReceivedAmount());
+
         // Update the debt with new values
         existingDebt.setStartDate(debtDto.getStartDate());
         existingDebt.setEndDate(debtDto.getEndDate());
@@ -78,6 +83,11 @@ public class DebtService {
         existingDebt.setReturnAmount(debtDto.getReturnAmount());
         existingDebt.setPeriodicPayment(debtDto.getPeriodicPayment());
         existingDebt.setReminder(debtDto.getReminder());
+        paymentScheduleService.invalidate(debtId);
+        refreshNextReminderDate(existingDebt);
+
+        ledgerService.applyDelta(LedgerEventType.DEBT_UPDATED, debtId, debtDto.getReceivedAmount().subtract(previousReceivedAmount));
+        ledgerVersion.increment();
 
         // Save the updated debt
         return debtRepository.save(existingDebt);
@@ -96,96 +106,124 @@ public class DebtService {
     }
 
     /**
-     * Retrieves all debts.
+     * Retrieves a page of debts ordered by ID, starting after the given cursor.
      *
-     * @return a list of all debts
+     * @param afterId the ID of the last debt of the previous page, or null for the first page
+     * @param size    the maximum number of debts to return
+     * @return a page of debts
      */
-    public List<Debt> getAllDebts() {
-        return debtRepository.findAll();
+    public List<Debt> getDebtsPage(Long afterId, int size) {
+        return debtRepository.findByIdGreaterThanOrderByIdAsc(afterId != null ? afterId : 0L, PageRequest.ofSize(size));
+    }
+
+    /**
+     * Streams all debts ordered by ID through a database cursor.
+     * Each debt is detached after it is consumed, so memory use does not grow with the table size.
+     *
+     * @param consumer the consumer receiving each debt
+     */
+    @Transactional(readOnly = true)
+    public void streamAllDebts(Consumer<Debt> consumer) {
+        try (Stream<Debt> debts = debtRepository.streamAll()) {
+            debts.forEach(debt -> {
+                consumer.accept(debt);
+                entityManager.detach(debt);
+            });
+        }
     }
 
     /**
      * Scheduled task that sends debt reminders by email every 10 minutes.
+     * Only debts whose next reminder date has been reached are loaded; after the check
+     * their next reminder date is moved to the following installment.
+     * Reminders are written to the outbox and delivered by {@link ReminderDispatcher}.
      */
     @Scheduled(cron = "0 0 9 * * *") // Run every 10 minutes
+    @Transactional
     public void sendDebtReminders() {
-        List<Debt> debts = debtRepository.findAll();
-        Date currentDate = new Date();
-
-        for (Debt debt : debts) {
-            if (debt.isNotified() && !debt.isDebtStatus()) {
-                List<Date> paymentPlan = generatePaymentPlan(debt.getId());
-                for (Date paymentDate : paymentPlan) {
-                    if (isToday(paymentDate, currentDate)) {
-                        log.info("Sending payment reminder for debt ID: " + debt.getId());
-                        sendReminderEmail(debt);
-                        break; // No need to check other payment dates for the same debt
-                    }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            LocalDate currentDate = LocalDate.now();
+            List<Debt> dueDebts = debtRepository.findAllDueForReminder(currentDate);
+            int queued = 0;
+
+            for (Debt debt : dueDebts) {
+                PaymentSchedule schedule = paymentScheduleService.getSchedule(debt);
+                InstallmentDto installment = schedule != null ? schedule.installmentDue(currentDate) : null;
+                // A date in the past means the run for that day was missed, only today's installment is reminded
+                if (debt.getEmail() == null) {
+                    log.warn("Skipping payment reminder for debt ID: " + debt.getId() + ", no email address set");
+                } else if (installment != null && currentDate.equals(installment.getDate())) {
+                    log.info("Queueing payment reminder for debt ID: " + debt.getId());
+                    reminderOutboxService.enqueue(debt.getId(), buildReminderMessage(debt, installment));
+                    queued++;
                 }
+                debt.setNextReminderDate(schedule != null ? schedule.nextDueDate(currentDate.plusDays(1)) : null);
+            }
+            debtRepository.saveAll(dueDebts);
+            if (!dueDebts.isEmpty()) {
+                ledgerVersion.increment();
             }
+
+            meterRegistry.summary("job.items", "job", "sendDebtReminders").record(dueDebts.size());
+            meterRegistry.counter("debt.reminders.queued").increment(queued);
+        } finally {
+            sample.stop(meterRegistry.timer("job.duration", "job", "sendDebtReminders"));
         }
     }
 
     /**
-     * Generates a payment plan for a debt based on the periodic payment.
+     * Recalculates the next reminder date of a debt from its payment plan.
      *
-     * @param debtId the ID of the debt
-     * @return a list of payment dates
+     * @param debt the debt to update
      */
-    public List<Date> generatePaymentPlan(Long debtId) {
-        Debt debt = getDebtById(debtId);
-        Date startDate = debt.getStartDate();
-        Date endDate = debt.getEndDate();
-        double periodicPayment = debt.getPeriodicPayment();
-
-        long daysBetween = ChronoUnit.DAYS.between(startDate.toInstant(), endDate.toInstant());
-
-        int numPayments = (int) Math.ceil(daysBetween / periodicPayment);
-
-        List<Date> paymentPlan = new ArrayList<>();
-
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(startDate);
-
-        for (int i = 0; i < numPayments - 1; i++) {
-            paymentPlan.add(calendar.getTime());
-            calendar.add(Calendar.DAY_OF_MONTH, (int) periodicPayment);
-        }
-
-        paymentPlan.add(endDate);
-
-        return paymentPlan;
+    private void refreshNextReminderDate(Debt debt) {
+        debt.setNextReminderDate(debt.isDebtStatus() ? null : findNextInstallmentDate(debt, LocalDate.now()));
     }
 
     /**
-     * Checks if a given date is today.
+     * Finds the first installment of a debt's payment schedule on or after a date.
      *
-     * @param date1 the first date to compare
-     * @param date2 the second date to compare
-     * @return true if the dates are the same day, false otherwise
+     * @param debt     the debt
+     * @param fromDate the earliest date to consider
+     * @return the installment date, or null if no installment is left
      */
-    private boolean isToday(Date date1, Date date2) {
-        LocalDate localDate1 = date1.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
-        LocalDate localDate2 = date2.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
-        return localDate1.isEqual(localDate2);
+    private LocalDate findNextInstallmentDate(Debt debt, LocalDate fromDate) {
+        PaymentSchedule schedule = paymentScheduleService.getSchedule(debt);
+        return schedule != null ? schedule.nextDueDate(fromDate) : null;
     }
 
+    /**
+     * Lists the installments of a debt from a date on, with the remaining amount split over them.
+     *
+     * @param debtId the ID of the debt
+     * @param from   the earliest installment date to include
+     * @param size   the maximum number of installments to return
+     * @return the installments in date order, empty if the debt has no schedule
+     * @throws RuntimeException if the debt is not found
+     */
+    public List<InstallmentDto> getPaymentSchedule(Long debtId, LocalDate from, int size) {
+        PaymentSchedule schedule = paymentScheduleService.getSchedule(getDebtById(debtId));
+        if (schedule == null) {
+            return List.of();
+        }
+        return schedule.installmentsFrom(from).limit(size).toList();
+    }
 
     /**
-     * Sends a reminder email for a debt.
+     * Builds the reminder email for an installment of a debt.
      *
-     * @param debt the debt to send the reminder for
+     * @param debt        the debt to build the reminder for
+     * @param installment the installment that is due
+     * @return the reminder message
      */
-    private void sendReminderEmail(Debt debt) {
+    SimpleMailMessage buildReminderMessage(Debt debt, InstallmentDto installment) {
         SimpleMailMessage mailMessage = new SimpleMailMessage();
         mailMessage.setTo(debt.getEmail()); // Assuming the email address is stored in the 'email' field
         mailMessage.setSubject("Payment Reminder: " + debt.getCategory());
 
-        // Check if it's the last day of payment
-        boolean isLastDay = isLastDayOfPayment(debt);
-
-        // Calculate the payment amount based on the periodic payment
-        BigDecimal paymentAmount = isLastDay ? debt.getReturnAmount() : debt.getReturnAmount().divide(BigDecimal.valueOf(debt.getPeriodicPayment()),  RoundingMode.HALF_UP);
+        boolean isLastDay = installment.isLast();
+        BigDecimal paymentAmount = installment.getAmount();
 
         mailMessage.setText("Dear recipient,\n\nThis is a reminder that your payment for the debt in the category '" +
                 debt.getCategory() + "' is due soon. Please make the necessary arrangements to settle the debt.\n\n" +
@@ -193,19 +231,7 @@ public class DebtService {
                 "\n\nYour reminder: " + debt.getReminder() +
                 "\nThank you.\n\nBest regards,\nYour Accounting System");
 
-        javaMailSender.send(mailMessage);
-    }
-
-    /**
-     * Checks if the current date is the last day of payment for a debt.
-     *
-     * @param debt the debt to check
-     * @return true if it's the last day of payment, false otherwise
-     */
-    private boolean isLastDayOfPayment(Debt debt) {
-        Date currentDate = new Date();
-        long daysRemaining = ChronoUnit.DAYS.between(currentDate.toInstant(), debt.getEndDate().toInstant());
-        return daysRemaining <= 0;
+        return mailMessage;
     }
 
     /**
@@ -214,7 +240,7 @@ public class DebtService {
      * @param debtDto the DebtDto object to convert
      * @return the converted Debt entity
      */
-    private Debt convertToDebt(DebtDto debtDto) {
+    Debt convertToDebt(DebtDto debtDto) {
         Debt debt = new Debt();
         debt.setStartDate(debtDto.getStartDate());
         debt.setEndDate(debtDto.getEndDate());
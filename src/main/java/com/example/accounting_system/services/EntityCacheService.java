@@ -0,0 +1,95 @@
+package com.example.accounting_system.services;
+
+import com.example.accounting_system.dtos.CacheStatisticsDto;
+import io.micrometer.observation.annotation.Observed;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Reports and evicts the second-level cache regions of the entities.
+ * Entries are evicted by Hibernate on entity updates and deletes and on bulk updates of the same entity.
+ * Native updates synchronized on their own query space leave the region alone and evict their rows here.
+ */
+@Service
+@Observed(name = "accounting.service")
+@RequiredArgsConstructor
+public class EntityCacheService {
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Retrieves hit, miss and put counts of every second-level cache region.
+     * Counts are only collected when {@code hibernate.generate_statistics} is enabled.
+     *
+     * @return the statistics of each region
+     */
+    public List<CacheStatisticsDto> getStatistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<CacheStatisticsDto> result = new ArrayList<>();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStatistics = statistics.getDomainDataRegionStatistics(region);
+            result.add(new CacheStatisticsDto(region,
+                    regionStatistics.getHitCount(),
+                    regionStatistics.getMissCount(),
+                    regionStatistics.getPutCount(),
+                    regionStatistics.getElementCountInMemory()));
+        }
+        return result;
+    }
+
+    /**
+     * Evicts entities from the second-level cache now and again once the current transaction completes,
+     * so an entry reloaded by a concurrent reader before the commit does not outlive it.
+     *
+     * @param entityClass the entity class
+     * @param ids         the IDs of the entities to evict
+     */
+    public void evict(Class<?> entityClass, Collection<Long> ids) {
+        Cache cache = entityManagerFactory.getCache();
+        ids.forEach(id -> cache.evict(entityClass, id));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    ids.forEach(id -> cache.evict(entityClass, id));
+                }
+            });
+        }
+    }
+
+    /**
+     * Evicts every entity of a class from the second-level cache, e.g. after its rows were changed in bulk,
+     * now and again once the current transaction completes.
+     *
+     * @param entityClass the entity class
+     */
+    public void evict(Class<?> entityClass) {
+        Cache cache = entityManagerFactory.getCache();
+        cache.evict(entityClass);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.evict(entityClass);
+                }
+            });
+        }
+    }
+
+    /**
+     * Evicts all entries of the second-level cache, e.g. after the database was changed outside the application.
+     */
+    public void evictAll() {
+        entityManagerFactory.getCache().evictAll();
+    }
+}
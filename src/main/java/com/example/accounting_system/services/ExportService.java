@@ -0,0 +1,229 @@
+package com.example.accounting_system.services;
+
+import io.micrometer.observation.annotation.Observed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exports transactions, payments and debts as CSV. Rows are read through a forward-only JDBC cursor
+ * and written through fixed-size buffers, so memory use does not depend on the number of rows.
+ */
+@Service
+@Observed(name = "accounting.service")
+@Slf4j
+public class ExportService {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public ExportService(DataSource dataSource, @Value("${export.fetch-size:1000}") int fetchSize) {
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        // Postgres only uses a cursor with a fetch size inside a transaction
+        template.setFetchSize(fetchSize);
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(template);
+    }
+
+    /**
+     * Writes transactions as CSV, ordered by ID.
+     *
+     * @param from         the first date to include, or null
+     * @param to           the last date to include, or null
+     * @param category     the category to include, or null for all
+     * @param gzip         whether to compress the output
+     * @param outputStream the stream to write to
+     */
+    @Transactional(readOnly = true)
+    public void exportTransactions(LocalDate from, LocalDate to, String category, boolean gzip, OutputStream outputStream) {
+        Query query = new Query("select id, date, category, amount, comment from transactions t")
+                .dateRange("t.date", from, to)
+                .category("t.category", category);
+        export(query.sql("t.id"), query.parameters, "id,date,category,amount,comment", gzip, outputStream,
+                (rs, writer) -> {
+                    writeValue(writer, rs.getLong(1));
+                    writeDate(writer, rs.getObject(2, LocalDateTime.class));
+                    writeValue(writer, rs.getString(3));
+                    writeValue(writer, rs.getBigDecimal(4));
+                    writeLast(writer, rs.getString(5));
+                });
+    }
+
+    /**
+     * Writes payments as CSV, ordered by ID.
+     *
+     * @param from         the first date to include, or null
+     * @param to           the last date to include, or null
+     * @param category     the category of the paid debts to include, or null for all
+     * @param gzip         whether to compress the output
+     * @param outputStream the stream to write to
+     */
+    @Transactional(readOnly = true)
+    public void exportPayments(LocalDate from, LocalDate to, String category, boolean gzip, OutputStream outputStream) {
+        Query query = new Query(category != null
+                ? "select p.id, p.date, p.amount, p.debt_id from payments p join debts d on d.id = p.debt_id"
+                : "select p.id, p.date, p.amount, p.debt_id from payments p")
+                .dateRange("p.date", from, to)
+                .category("d.category", category);
+        export(query.sql("p.id"), query.parameters, "id,date,amount,debt_id", gzip, outputStream,
+                (rs, writer) -> {
+                    writeValue(writer, rs.getLong(1));
+                    writeDate(writer, rs.getObject(2, LocalDateTime.class));
+                    writeValue(writer, rs.getBigDecimal(3));
+                    writeLast(writer, rs.getObject(4, Long.class));
+                });
+    }
+
+    /**
+     * Writes debts as CSV, ordered by ID. The date range applies to the start date.
+     *
+     * @param from         the first start date to include, or null
+     * @param to           the last start date to include, or null
+     * @param category     the category to include, or null for all
+     * @param gzip         whether to compress the output
+     * @param outputStream the stream to write to
+     */
+    @Transactional(readOnly = true)
+    public void exportDebts(LocalDate from, LocalDate to, String category, boolean gzip, OutputStream outputStream) {
+        Query query = new Query("select id, start_date, end_date, category, received_amount, return_amount, " +
+                "periodic_payment, debt_status, reminder from debts d")
+                .dateRange("d.start_date", from, to)
+                .category("d.category", category);
+        export(query.sql("d.id"), query.parameters,
+                "id,start_date,end_date,category,received_amount,return_amount,periodic_payment,debt_status,reminder",
+                gzip, outputStream,
+                (rs, writer) -> {
+                    writeValue(writer, rs.getLong(1));
+                    writeDate(writer, rs.getObject(2, LocalDateTime.class));
+                    writeDate(writer, rs.getObject(3, LocalDateTime.class));
+                    writeValue(writer, rs.getString(4));
+                    writeValue(writer, rs.getBigDecimal(5));
+                    writeValue(writer, rs.getBigDecimal(6));
+                    writeValue(writer, rs.getObject(7, Double.class));
+                    writeValue(writer, rs.getBoolean(8));
+                    writeLast(writer, rs.getString(9));
+                });
+    }
+
+    private void export(String sql, MapSqlParameterSource parameters, String header, boolean gzip,
+                        OutputStream outputStream, RowWriter rowWriter) {
+        long startTime = System.nanoTime();
+        long[] rows = {0};
+        try {
+            OutputStream target = gzip ? new GZIPOutputStream(outputStream, BUFFER_SIZE) : outputStream;
+            Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), BUFFER_SIZE);
+            writer.write(header);
+            writer.write('\n');
+            jdbcTemplate.query(sql, parameters, rs -> {
+                try {
+                    rowWriter.write(rs, writer);
+                    rows[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+            if (target instanceof GZIPOutputStream gzipStream) {
+                gzipStream.finish();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.info("Exported {} rows in {} ms", rows[0], TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+    }
+
+    private static void writeValue(Writer writer, Object value) throws IOException {
+        writeField(writer, value);
+        writer.write(',');
+    }
+
+    private static void writeLast(Writer writer, Object value) throws IOException {
+        writeField(writer, value);
+        writer.write('\n');
+    }
+
+    private static void writeDate(Writer writer, LocalDateTime value) throws IOException {
+        // Dates are exported in the yyyy-MM-dd format accepted by the import
+        writeValue(writer, value != null ? value.toLocalDate() : null);
+    }
+
+    private static void writeField(Writer writer, Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        String text = value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(ResultSet rs, Writer writer) throws SQLException, IOException;
+    }
+
+    /**
+     * Builds a select with optional filters.
+     */
+    private static final class Query {
+        private final StringBuilder sql;
+        private final MapSqlParameterSource parameters = new MapSqlParameterSource();
+        private String separator = " where ";
+
+        private Query(String select) {
+            this.sql = new StringBuilder(select);
+        }
+
+        private Query dateRange(String column, LocalDate from, LocalDate to) {
+            if (from != null) {
+                condition(column + " >= :from");
+                parameters.addValue("from", from.atStartOfDay());
+            }
+            if (to != null) {
+                condition(column + " < :to");
+                parameters.addValue("to", to.plusDays(1).atStartOfDay());
+            }
+            return this;
+        }
+
+        private Query category(String column, String category) {
+            if (category != null) {
+                condition(column + " = :category");
+                parameters.addValue("category", category);
+            }
+            return this;
+        }
+
+        private void condition(String condition) {
+            sql.append(separator).append(condition);
+            separator = " and ";
+        }
+
+        private String sql(String orderColumn) {
+            return sql + " order by " + orderColumn;
+        }
+    }
+}
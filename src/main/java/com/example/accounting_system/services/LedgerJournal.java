@@ -0,0 +1,295 @@
+package com.example.accounting_system.services;
+
+import com.example.accounting_system.dtos.LedgerJournalStateDto;
+import com.example.accounting_system.events.LedgerChangedEvent;
+import com.example.accounting_system.events.LedgerEventType;
+import com.example.accounting_system.util.Money;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Optional append-only journal of committed ledger events, written through a memory-mapped file.
+ * Records have a fixed size and carry a sequence number and checksum, so a torn write at the end is detected and
+ * overwritten. Every {@code snapshot-interval} events the replayed state is written to a snapshot file, and a
+ * restart only replays the events after the last snapshot.
+ * <p>
+ * The journal is a log of the ledger, not a way to recover it. Events are appended after their database transaction
+ * commits, so a crash in between loses them, and the ledger tables stay authoritative: on startup a replayed balance
+ * that differs from the ledger balance is resynchronized with a {@link LedgerEventType#BALANCE_RECALCULATED} record.
+ * <p>
+ * Record layout (little-endian): sequence, timestamp millis, entity ID (0 for none), amount in cents,
+ * type code, 3 bytes padding and the CRC32 of the preceding 36 bytes.
+ */
+@Component
+@Slf4j
+public class LedgerJournal {
+    static final int RECORD_SIZE = 40;
+    private static final int CHECKSUM_OFFSET = 36;
+    private static final int SNAPSHOT_MAGIC = 0x4C4A534E;
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final String JOURNAL_FILE = "ledger.journal";
+    private static final String SNAPSHOT_FILE = "ledger.snapshot";
+
+    private final LedgerService ledgerService;
+    private final boolean enabled;
+    private final Path directory;
+    private final long regionSize;
+    private final int snapshotInterval;
+
+    private final Map<LedgerEventType, Long> eventCounts = new EnumMap<>(LedgerEventType.class);
+    private final Map<LedgerEventType, Long> eventCents = new EnumMap<>(LedgerEventType.class);
+    private long sequence;
+    private long balanceCents;
+    private long recordCount;
+    private long snapshotRecordCount;
+
+    private FileChannel channel;
+    private MappedByteBuffer region;
+    private long regionStart = -1;
+
+    public LedgerJournal(LedgerService ledgerService,
+                         @Value("${ledger.journal.enabled:false}") boolean enabled,
+                         @Value("${ledger.journal.directory:journal}") Path directory,
+                         @Value("${ledger.journal.region-size:16777216}") long regionSize,
+                         @Value("${ledger.journal.snapshot-interval:10000}") int snapshotInterval) {
+        this.ledgerService = ledgerService;
+        this.enabled = enabled;
+        this.directory = directory;
+        // Records must never span two mapped regions
+        this.regionSize = Math.max(1, regionSize / RECORD_SIZE) * RECORD_SIZE;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    /**
+     * Opens the journal and rebuilds its state from the last snapshot and the events after it.
+     * An empty journal is started with the current ledger balance, and one whose balance differs from the ledger
+     * balance, after lost events, is reset to it.
+     */
+    @PostConstruct
+    public synchronized void open() {
+        if (!enabled) {
+            return;
+        }
+        long startTime = System.nanoTime();
+        try {
+            Files.createDirectories(directory);
+            channel = FileChannel.open(directory.resolve(JOURNAL_FILE),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            readSnapshot();
+            long replayed = replay();
+
+            BigDecimal ledgerBalance = ledgerService.getBalance();
+            if (recordCount == 0) {
+                append(LedgerEventType.JOURNAL_OPENED, null, ledgerBalance);
+            } else if (getBalance().compareTo(ledgerBalance) != 0) {
+                log.warn("Journaled balance {} differs from the ledger balance {}, resynchronizing the journal with the ledger",
+                        getBalance(), ledgerBalance);
+                append(LedgerEventType.BALANCE_RECALCULATED, null, ledgerBalance);
+            }
+            log.info("Replayed {} ledger events in {} ms, journal sequence {}",
+                    replayed, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime), sequence);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open the ledger journal in " + directory, e);
+        }
+    }
+
+    /**
+     * Appends a committed ledger change to the journal. Failures are logged and do not affect the change.
+     *
+     * @param event the ledger change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLedgerChanged(LedgerChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            append(event.type(), event.entityId(), event.amount());
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to journal ledger event {} for ID {}", event.type(), event.entityId(), e);
+        }
+    }
+
+    /**
+     * Retrieves the ledger state rebuilt from the journal.
+     *
+     * @return the journaled state
+     * @throws IllegalStateException if the journal is disabled
+     */
+    public synchronized LedgerJournalStateDto getState() {
+        if (!enabled) {
+            throw new IllegalStateException("The ledger journal is disabled");
+        }
+        Map<LedgerEventType, BigDecimal> eventAmounts = new EnumMap<>(LedgerEventType.class);
+        eventCents.forEach((type, cents) -> eventAmounts.put(type, Money.toBigDecimal(cents)));
+        return new LedgerJournalStateDto(sequence, getBalance(), new EnumMap<>(eventCounts), eventAmounts);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        writeSnapshot();
+        channel.close();
+        channel = null;
+    }
+
+    private synchronized void append(LedgerEventType type, Long entityId, BigDecimal amount) throws IOException {
+        long cents = Money.toCents(amount);
+        ByteBuffer buffer = recordBuffer(recordCount);
+        int start = buffer.position();
+        buffer.putLong(sequence + 1)
+                .putLong(System.currentTimeMillis())
+                .putLong(entityId != null ? entityId : 0L)
+                .putLong(cents)
+                .put(type.getCode())
+                .put((byte) 0).put((byte) 0).put((byte) 0);
+        buffer.putInt(checksum(buffer, start));
+
+        apply(type, cents);
+        recordCount++;
+        if (recordCount - snapshotRecordCount >= snapshotInterval) {
+            writeSnapshot();
+        }
+    }
+
+    /**
+     * Applies the valid records after the snapshot and positions the journal after the last one.
+     *
+     * @return the number of replayed records
+     */
+    private long replay() throws IOException {
+        long replayed = 0;
+        while (true) {
+            ByteBuffer buffer = recordBuffer(recordCount);
+            int start = buffer.position();
+            long recordSequence = buffer.getLong(start);
+            LedgerEventType type = LedgerEventType.fromCode(buffer.get(start + 32));
+            if (recordSequence != sequence + 1 || type == null
+                    || buffer.getInt(start + CHECKSUM_OFFSET) != checksum(buffer, start)) {
+                // Zeroed space after the last record, or a record torn by a crash
+                return replayed;
+            }
+            apply(type, buffer.getLong(start + 24));
+            recordCount++;
+            replayed++;
+        }
+    }
+
+    private void apply(LedgerEventType type, long cents) {
+        sequence++;
+        balanceCents = type.setsBalance() ? cents : Math.addExact(balanceCents, cents);
+        eventCounts.merge(type, 1L, Long::sum);
+        if (!type.setsBalance()) {
+            eventCents.merge(type, cents, Math::addExact);
+        }
+    }
+
+    /**
+     * Maps the region containing a record and returns a buffer positioned at it.
+     */
+    private ByteBuffer recordBuffer(long index) throws IOException {
+        long offset = index * RECORD_SIZE;
+        long start = offset - offset % regionSize;
+        if (start != regionStart) {
+            if (region != null) {
+                region.force();
+            }
+            region = channel.map(FileChannel.MapMode.READ_WRITE, start, regionSize);
+            region.order(ByteOrder.LITTLE_ENDIAN);
+            regionStart = start;
+        }
+        return region.position((int) (offset - start));
+    }
+
+    private static int checksum(ByteBuffer buffer, int start) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(start, CHECKSUM_OFFSET));
+        return (int) crc.getValue();
+    }
+
+    private BigDecimal getBalance() {
+        return Money.toBigDecimal(balanceCents);
+    }
+
+    private void readSnapshot() throws IOException {
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        if (!Files.exists(snapshot)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(snapshot))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                log.warn("Ignoring unreadable ledger snapshot {}", snapshot);
+                return;
+            }
+            sequence = in.readLong();
+            recordCount = in.readLong();
+            balanceCents = in.readLong();
+            int types = in.readInt();
+            for (int i = 0; i < types; i++) {
+                LedgerEventType type = LedgerEventType.fromCode(in.readByte());
+                long count = in.readLong();
+                long cents = in.readLong();
+                if (type != null) {
+                    eventCounts.put(type, count);
+                    eventCents.put(type, cents);
+                }
+            }
+            snapshotRecordCount = recordCount;
+        }
+    }
+
+    /**
+     * Writes the current state to the snapshot file, replacing the previous snapshot atomically.
+     * The journal is forced to disk first, so a snapshot never refers to records that could be lost.
+     */
+    private void writeSnapshot() throws IOException {
+        if (region != null) {
+            region.force();
+        }
+        Path temporary = directory.resolve(SNAPSHOT_FILE + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(temporary))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeLong(sequence);
+            out.writeLong(recordCount);
+            out.writeLong(balanceCents);
+            out.writeInt(eventCounts.size());
+            for (Map.Entry<LedgerEventType, Long> entry : eventCounts.entrySet()) {
+                out.writeByte(entry.getKey().getCode());
+                out.writeLong(entry.getValue());
+                out.writeLong(eventCents.getOrDefault(entry.getKey(), 0L));
+            }
+        }
+        Files.move(temporary, directory.resolve(SNAPSHOT_FILE),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        snapshotRecordCount = recordCount;
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.accounting_system.services;
+
+import com.example.accounting_system.dtos.AmountTotalDto;
+import com.example.accounting_system.entities.LedgerBalance;
+import com.example.accounting_system.events.LedgerChangedEvent;
+import com.example.accounting_system.events.LedgerEventType;
+import com.example.accounting_system.repositories.ArchivedAmountRepository;
+import com.example.accounting_system.repositories.DebtRepository;
+import com.example.accounting_system.repositories.LedgerBalanceRepository;
+import com.example.accounting_system.repositories.PaymentRepository;
+import com.example.accounting_system.repositories.TransactionRepository;
+import com.example.accounting_system.util.Money;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.annotation.Observed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Maintains the running ledger balance (transactions - payments + received debts) as a single row,
+ * so reading the total balance does not require scanning the ledger tables. Archived transactions keep counting
+ * through their daily amounts.
+ */
+@Service
+@Observed(name = "accounting.service")
+@Slf4j
+@RequiredArgsConstructor
+public class LedgerService {
+    private final LedgerBalanceRepository ledgerBalanceRepository;
+    private final TransactionRepository transactionRepository;
+    private final PaymentRepository paymentRepository;
+    private final DebtRepository debtRepository;
+    private final ArchivedAmountRepository archivedAmountRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LedgerVersion ledgerVersion;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Retrieves the current running balance.
+     *
+     * @return the current balance
+     * @throws RuntimeException if the ledger row is missing
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal getBalance() {
+        return ledgerBalanceRepository.findById(LedgerBalance.LEDGER_ID)
+                .map(LedgerBalance::getBalanceAmount)
+                .orElseThrow(() -> new RuntimeException("Ledger balance is not initialized"));
+    }
+
+    /**
+     * Adds a delta to the running balance. Must be called inside the transaction that performs the
+     * corresponding ledger change, so both are committed or rolled back together.
+     * Publishes a {@link LedgerChangedEvent} for listeners interested in the committed change,
+     * also when the delta is zero.
+     *
+     * @param type     the kind of change
+     * @param entityId the ID of the changed transaction, payment or debt, or null
+     * @param delta    the amount to add (negative to subtract)
+     * @throws RuntimeException if the ledger row is missing
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyDelta(LedgerEventType type, Long entityId, BigDecimal delta) {
+        if (delta == null) {
+            return;
+        }
+        if (delta.signum() != 0 && ledgerBalanceRepository.addToBalance(LedgerBalance.LEDGER_ID, delta) == 0) {
+            throw new RuntimeException("Ledger balance is not initialized");
+        }
+        eventPublisher.publishEvent(new LedgerChangedEvent(type, entityId, delta));
+    }
+
+    /**
+     * Adds the deltas of several changes of the same kind with a single balance update, publishing one
+     * {@link LedgerChangedEvent} per change. Must be called inside the transaction that performs the changes,
+     * like {@link #applyDelta}.
+     *
+     * @param type   the kind of the changes
+     * @param deltas the amount to add per ID of the changed transaction, payment or debt
+     * @throws RuntimeException if the ledger row is missing
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyDeltas(LedgerEventType type, Map<Long, BigDecimal> deltas) {
+        long totalCents = 0;
+        for (BigDecimal delta : deltas.values()) {
+            totalCents = Math.addExact(totalCents, Money.toCents(delta));
+        }
+        if (totalCents != 0 && ledgerBalanceRepository.addToBalance(LedgerBalance.LEDGER_ID, Money.toBigDecimal(totalCents)) == 0) {
+            throw new RuntimeException("Ledger balance is not initialized");
+        }
+        deltas.forEach((entityId, delta) -> eventPublisher.publishEvent(new LedgerChangedEvent(type, entityId, delta)));
+    }
+
+    /**
+     * Recomputes the running balance from the ledger tables and stores it. Intended for reconciliation
+     * after manual data fixes, not for regular reads.
+     *
+     * @return the recomputed balance
+     */
+    @Transactional
+    public BigDecimal recalculate() {
+        BigDecimal balance = total("transactions", transactionRepository.totalAmount())
+                .add(total("archived_amounts", archivedAmountRepository.totalAmount()))
+                .subtract(total("payments", paymentRepository.totalAmount()))
+                .add(total("debts", debtRepository.totalReceivedAmount()));
+        ledgerBalanceRepository.setBalance(LedgerBalance.LEDGER_ID, balance);
+        eventPublisher.publishEvent(new LedgerChangedEvent(LedgerEventType.BALANCE_RECALCULATED, null, balance));
+        ledgerVersion.increment();
+        log.info("Ledger balance recalculated: {}", balance);
+        return balance;
+    }
+
+    /**
+     * Records the rows summed for one ledger table.
+     *
+     * @param source the summed table
+     * @param total  the row count and sum of the table
+     * @return the sum, zero for an empty table
+     */
+    private BigDecimal total(String source, AmountTotalDto total) {
+        meterRegistry.summary("balance.rows.scanned", "source", source).record(total.getCount());
+        return total.getTotal() != null ? total.getTotal() : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.accounting_system.services;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonically increasing version of the stored data, increased by every committed write.
+ * Responses computed at one version stay valid until the next one, which is what the read endpoints' ETags rely on.
+ */
+@Component
+public class LedgerVersion {
+    // Versions restart at zero, the start time keeps tags of an earlier run from matching
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * Retrieves the current version.
+     *
+     * @return the current version
+     */
+    public long current() {
+        return version.get();
+    }
+
+    /**
+     * Retrieves the current version as an opaque tag, unique across application restarts.
+     *
+     * @return the current version tag
+     */
+    public String currentTag() {
+        return epoch + "-" + version.get();
+    }
+
+    /**
+     * Increases the version once the current transaction commits, or right away outside a transaction.
+     * The increase runs after completion, so after the caches have dropped the changed data on commit.
+     */
+    public void increment() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            version.incrementAndGet();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    version.incrementAndGet();
+                }
+            }
+        });
+    }
+}
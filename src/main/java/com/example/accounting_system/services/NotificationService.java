@@ -3,31 +3,32 @@ package com.example.accounting_system.services;
 import com.example.accounting_system.dtos.NotificationDto;
 import com.example.accounting_system.entities.Debt;
 import com.example.accounting_system.repositories.DebtRepository;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-
-import java.util.List;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
+@Observed(name = "accounting.service")
 @RequiredArgsConstructor
 public class NotificationService {
     private final DebtRepository debtRepository;
+    private final LedgerVersion ledgerVersion;
+    private final EntityCacheService entityCacheService;
 
     /**
-     * Creates notifications for all debts.
+     * Sets the notification settings of all open debts in a single update statement. The update can touch any
+     * number of debts, so the whole debt cache region is evicted rather than loading their IDs first.
      *
      * @param notificationDto the DTO containing notification information
-     * @return a list of updated debts
+     * @return the number of updated debts
      */
-    public List<Debt> createNotifications(NotificationDto notificationDto) {
-        List<Debt> debts = debtRepository.findAll();
-        debts.forEach(debt -> {
-            if (!debt.isDebtStatus()) {
-                debt.setNotified(notificationDto.isNotified());
-                debt.setEmail(notificationDto.getEmail());
-            }
-        });
-        return debtRepository.saveAll(debts);
+    @Transactional
+    public int createNotifications(NotificationDto notificationDto) {
+        int updated = debtRepository.updateNotificationOfOpenDebts(notificationDto.isNotified(), notificationDto.getEmail());
+        entityCacheService.evict(Debt.class);
+        ledgerVersion.increment();
+        return updated;
     }
 
     /**
@@ -46,6 +47,8 @@ public class NotificationService {
         } else {
             throw new RuntimeException("You can't enable notification because you already payed your debt");
         }
-        return debtRepository.save(debt);
+        Debt savedDebt = debtRepository.save(debt);
+        ledgerVersion.increment();
+        return savedDebt;
     }
 }
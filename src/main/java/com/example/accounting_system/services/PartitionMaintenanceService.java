@@ -0,0 +1,177 @@
+package com.example.accounting_system.services;
+
+import com.example.accounting_system.entities.Transaction;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.annotation.Observed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Maintains the monthly partitions of the transactions table. Partitions are created ahead of the months that will
+ * need them, the month that just closed is frozen so it never needs vacuuming again, and with a retention set,
+ * closed months past it are detached into the {@code archive} schema. The daily amounts of archived months are
+ * kept in {@code archived_amounts}, so the balances do not change.
+ */
+@Service
+@Observed(name = "accounting.service")
+@Slf4j
+public class PartitionMaintenanceService {
+    static final String PARTITIONED_TABLE = "transactions";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final LedgerVersion ledgerVersion;
+    private final EntityCacheService entityCacheService;
+    private final int monthsAhead;
+    private final int retentionMonths;
+
+    public PartitionMaintenanceService(DataSource dataSource,
+                                       PlatformTransactionManager transactionManager,
+                                       MeterRegistry meterRegistry,
+                                       LedgerVersion ledgerVersion,
+                                       EntityCacheService entityCacheService,
+                                       @Value("${partitions.months-ahead:3}") int monthsAhead,
+                                       @Value("${partitions.retention-months:0}") int retentionMonths) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.ledgerVersion = ledgerVersion;
+        this.entityCacheService = entityCacheService;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+    }
+
+    /**
+     * Scheduled task that maintains the partitions. A failure on one partition is logged and does not stop the others.
+     */
+    @Scheduled(cron = "${partitions.maintenance-cron:0 30 0 * * *}")
+    public void maintainPartitions() {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            YearMonth currentMonth = YearMonth.now();
+            int created = createPartitions(PARTITIONED_TABLE, currentMonth);
+            freezePartition(PARTITIONED_TABLE, currentMonth.minusMonths(1));
+            int archived = 0;
+            if (retentionMonths > 0) {
+                archived = archivePartitions(PARTITIONED_TABLE, currentMonth.minusMonths(retentionMonths));
+            }
+            meterRegistry.summary("job.items", "job", "maintainPartitions").record(created + archived);
+        } finally {
+            sample.stop(meterRegistry.timer("job.duration", "job", "maintainPartitions"));
+        }
+    }
+
+    /**
+     * Creates the partitions of the current month and the {@code months-ahead} following ones. Rows of a new
+     * partition's month already stored in the default partition are moved into it.
+     *
+     * @param table        the partitioned table
+     * @param currentMonth the current month
+     * @return the number of partitions created
+     */
+    private int createPartitions(String table, YearMonth currentMonth) {
+        int created = 0;
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = currentMonth.plusMonths(i);
+            try {
+                if (Boolean.TRUE.equals(jdbcTemplate.queryForObject("select create_monthly_partition(?, ?)",
+                        Boolean.class, table, month.atDay(1)))) {
+                    log.info("Created partition {}", partitionName(table, month));
+                    created++;
+                }
+            } catch (DataAccessException e) {
+                log.error("Failed to create partition {}", partitionName(table, month), e);
+            }
+        }
+        return created;
+    }
+
+    /**
+     * Freezes and analyzes the partition of a closed month. Later runs skip its pages, they are all frozen.
+     *
+     * @param table the partitioned table
+     * @param month the closed month
+     */
+    private void freezePartition(String table, YearMonth month) {
+        String partition = partitionName(table, month);
+        try {
+            if (Boolean.TRUE.equals(jdbcTemplate.queryForObject("select to_regclass(?) is not null",
+                    Boolean.class, partition))) {
+                jdbcTemplate.execute("VACUUM (FREEZE, ANALYZE) " + partition);
+            }
+        } catch (DataAccessException e) {
+            log.error("Failed to freeze partition {}", partition, e);
+        }
+    }
+
+    /**
+     * Detaches the partitions of the months before a cutoff and moves them to the {@code archive} schema.
+     * Their rows are no longer part of the table, but stay available in the archive, and their net amount per day
+     * is carried forward in {@code archived_amounts}, in the same database transaction as the detach.
+     *
+     * @param table  the partitioned table
+     * @param cutoff the first month to keep
+     * @return the number of partitions archived
+     */
+    int archivePartitions(String table, YearMonth cutoff) {
+        List<String> partitions = jdbcTemplate.queryForList("select c.relname from pg_inherits i " +
+                        "join pg_class c on c.oid = i.inhrelid where i.inhparent = ?::regclass and c.relname ~ ?",
+                String.class, table, "^" + table + "_p[0-9]{6}$");
+        int archived = 0;
+        for (String partition : partitions) {
+            YearMonth month = YearMonth.parse(partition.substring(table.length() + 2), PARTITION_SUFFIX);
+            if (!month.isBefore(cutoff)) {
+                continue;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.execute("ALTER TABLE " + table + " DETACH PARTITION " + partition);
+                    jdbcTemplate.execute("ALTER TABLE " + partition + " SET SCHEMA archive");
+                    jdbcTemplate.update("insert into archived_amounts (day, amount, row_count) " +
+                            "select date::date, coalesce(sum(amount), 0), count(*) from archive." + partition + " group by date::date " +
+                            "on conflict (day) do update set amount = archived_amounts.amount + excluded.amount, " +
+                            "row_count = archived_amounts.row_count + excluded.row_count");
+                    // Detaching fires no trigger, the keys of the archived rows are dropped here
+                    jdbcTemplate.update("delete from transaction_keys where date >= ? and date < ?",
+                            month.atDay(1), month.plusMonths(1).atDay(1));
+                });
+                log.info("Archived partition {}", partition);
+                archived++;
+            } catch (DataAccessException | TransactionException e) {
+                log.error("Failed to archive partition {}", partition, e);
+            }
+        }
+        if (archived > 0) {
+            // The archived rows are gone from the table, drop them from the cache and the cached responses
+            entityCacheService.evict(Transaction.class);
+            ledgerVersion.increment();
+        }
+        return archived;
+    }
+
+    /**
+     * Returns the name of the partition of a month, as created by the {@code create_monthly_partition} function.
+     *
+     * @param table the partitioned table
+     * @param month the month
+     * @return the partition name
+     */
+    static String partitionName(String table, YearMonth month) {
+        return table + "_p" + month.format(PARTITION_SUFFIX);
+    }
+}
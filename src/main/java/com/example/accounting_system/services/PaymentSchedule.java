@@ -0,0 +1,103 @@
+package com.example.accounting_system.services;
+
+import com.example.accounting_system.dtos.InstallmentDto;
+import com.example.accounting_system.util.Money;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Installment plan of a debt: an installment every {@code periodDays} days from the start date and a final
+ * installment on the end date. Nothing is materialized, dates and amounts are computed from the installment index,
+ * so the next installment after a date is found in constant time.
+ * <p>
+ * Amounts are exact in cents: the remaining amount is split evenly over the installments that are still due,
+ * and the cents that do not divide evenly are added to the earliest of them.
+ */
+public final class PaymentSchedule {
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    private final int periodDays;
+    private final long remainingCents;
+    private final int installmentCount;
+
+    PaymentSchedule(LocalDate startDate, LocalDate endDate, int periodDays, long remainingCents) {
+        if (periodDays < 1) {
+            throw new IllegalArgumentException("The payment period must be at least one day");
+        }
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.periodDays = periodDays;
+        this.remainingCents = Math.max(0, remainingCents);
+        long days = ChronoUnit.DAYS.between(startDate, endDate);
+        this.installmentCount = (int) Math.max(1, ceilDiv(days, periodDays));
+    }
+
+    public int getInstallmentCount() {
+        return installmentCount;
+    }
+
+    /**
+     * Finds the date of the first installment on or after a date.
+     *
+     * @param date the earliest date to consider
+     * @return the installment date, or null if no installment is left
+     */
+    public LocalDate nextDueDate(LocalDate date) {
+        int index = indexOnOrAfter(date);
+        return index < installmentCount ? dateOf(index) : null;
+    }
+
+    /**
+     * Finds the first installment on or after a date, with the remaining amount split from that installment on.
+     *
+     * @param date the earliest date to consider
+     * @return the installment, or null if no installment is left
+     */
+    public InstallmentDto installmentDue(LocalDate date) {
+        int index = indexOnOrAfter(date);
+        return index < installmentCount ? installment(index, index) : null;
+    }
+
+    /**
+     * Lists the installments on or after a date, computed as the stream is consumed.
+     *
+     * @param date the earliest date to consider
+     * @return the installments in date order
+     */
+    public Stream<InstallmentDto> installmentsFrom(LocalDate date) {
+        int firstDue = indexOnOrAfter(date);
+        return IntStream.range(firstDue, installmentCount).mapToObj(index -> installment(index, firstDue));
+    }
+
+    boolean matches(LocalDate startDate, LocalDate endDate, int periodDays, long remainingCents) {
+        return this.startDate.equals(startDate) && this.endDate.equals(endDate)
+                && this.periodDays == periodDays && this.remainingCents == Math.max(0, remainingCents);
+    }
+
+    private int indexOnOrAfter(LocalDate date) {
+        if (date.isAfter(endDate)) {
+            return installmentCount;
+        }
+        long days = ChronoUnit.DAYS.between(startDate, date);
+        long index = days <= 0 ? 0 : ceilDiv(days, periodDays);
+        // Every regular installment is before the end date, so later dates fall on the final installment
+        return (int) Math.min(index, installmentCount - 1);
+    }
+
+    private LocalDate dateOf(int index) {
+        return index < installmentCount - 1 ? startDate.plusDays((long) index * periodDays) : endDate;
+    }
+
+    private InstallmentDto installment(int index, int firstDue) {
+        int dueCount = installmentCount - firstDue;
+        long cents = remainingCents / dueCount + (index - firstDue < remainingCents % dueCount ? 1 : 0);
+        return new InstallmentDto(index + 1, dateOf(index), Money.toBigDecimal(cents), index == installmentCount - 1);
+    }
+
+    private static long ceilDiv(long dividend, long divisor) {
+        return -Math.floorDiv(-dividend, divisor);
+    }
+}
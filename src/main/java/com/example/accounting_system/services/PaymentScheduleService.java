@@ -0,0 +1,77 @@
+package com.example.accounting_system.services;
+
+import com.example.accounting_system.entities.Debt;
+import com.example.accounting_system.util.Money;
+import io.micrometer.observation.annotation.Observed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Provides the payment schedules of debts, cached per debt in a bounded LRU map.
+ * A cached schedule is only reused while the dates, period and return amount of the debt are unchanged,
+ * so a concurrent update can never serve a stale plan; updates and payments also evict it explicitly.
+ */
+@Service
+@Observed(name = "accounting.service")
+public class PaymentScheduleService {
+    private final Map<Long, PaymentSchedule> schedules;
+
+    public PaymentScheduleService(@Value("${debts.schedule-cache-size:10000}") int cacheSize) {
+        this.schedules = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, PaymentSchedule> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    /**
+     * Retrieves the payment schedule of a debt.
+     *
+     * @param debt the debt
+     * @return the schedule, or null if the debt has no dates or a period shorter than a day
+     */
+    public PaymentSchedule getSchedule(Debt debt) {
+        if (debt.getStartDate() == null || debt.getEndDate() == null || debt.getPeriodicPayment() < 1) {
+            return null;
+        }
+        LocalDate startDate = toLocalDate(debt.getStartDate());
+        LocalDate endDate = toLocalDate(debt.getEndDate());
+        int periodDays = (int) debt.getPeriodicPayment();
+        long remainingCents = debt.getReturnAmount() != null ? Money.toCents(debt.getReturnAmount()) : 0;
+
+        if (debt.getId() == null) {
+            return new PaymentSchedule(startDate, endDate, periodDays, remainingCents);
+        }
+        PaymentSchedule cached = schedules.get(debt.getId());
+        if (cached != null && cached.matches(startDate, endDate, periodDays, remainingCents)) {
+            return cached;
+        }
+        PaymentSchedule schedule = new PaymentSchedule(startDate, endDate, periodDays, remainingCents);
+        schedules.put(debt.getId(), schedule);
+        return schedule;
+    }
+
+    /**
+     * Evicts the cached schedule of a debt.
+     *
+     * @param debtId the ID of the debt
+     */
+    public void invalidate(Long debtId) {
+        schedules.remove(debtId);
+    }
+
+    /**
+     * Converts a date to a local date in the system time zone.
+     */
+    private static LocalDate toLocalDate(Date date) {
+        return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+}
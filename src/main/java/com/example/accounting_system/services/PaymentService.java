@@ -1,22 +1,37 @@
 package com.example.accounting_system.services;
 
 import com.example.accounting_system.dtos.PaymentDto;
+import com.example.accounting_system.dtos.PaymentViewDto;
 import com.example.accounting_system.entities.Debt;
 import com.example.accounting_system.entities.Payment;
+import com.example.accounting_system.events.LedgerEventType;
 import com.example.accounting_system.repositories.DebtRepository;
 import com.example.accounting_system.repositories.PaymentRepository;
+import io.micrometer.observation.annotation.Observed;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
+@Observed(name = "accounting.service")
 @RequiredArgsConstructor
 public class PaymentService {
 
     private final PaymentRepository paymentRepository;
     private final DebtRepository debtRepository;
+    private final LedgerService ledgerService;
+    private final PaymentScheduleService paymentScheduleService;
+    private final EntityManager entityManager;
+    private final LedgerVersion ledgerVersion;
+    private final EntityCacheService entityCacheService;
+    private final BalanceSnapshotService balanceSnapshotService;
 
     /**
      * Adds a payment for a specific debt.
@@ -24,47 +39,29 @@ public class PaymentService {
      * @param debtId     the ID of the debt
      * @param paymentDto the payment DTO
      * @return the created payment
-     * @throws RuntimeException if the debt is not found
+     * @throws RuntimeException         if the debt is not found
+     * @throws IllegalArgumentException if the payment exceeds the return amount of the debt
      */
+    @Transactional
     public Payment addPayment(Long debtId, PaymentDto paymentDto) {
-        // Find the debt by ID
+        // Decrement the return amount atomically, this also locks the debt row until commit
+        applyPaymentToDebt(debtId, paymentDto.getAmount());
+
         Debt debt = debtRepository.findById(debtId)
                 .orElseThrow(() -> new RuntimeException("Debt not found with ID: " + debtId));
 
-        checkReturnAmount(paymentDto.getAmount(), debt.getReturnAmount()); // check if balance is enough
-
         // Create a new payment
         Payment payment = new Payment();
         payment.setDebt(debt);
         payment.setDate(paymentDto.getDate());
         payment.setAmount(paymentDto.getAmount());
 
-        debt.setReturnAmount(debt.getReturnAmount().subtract(payment.getAmount()));
-
-        if (debt.getReturnAmount().compareTo(BigDecimal.ZERO) <= 0) {
-            debt.setDebtStatus(true);
-            debt.setNotified(false);
-        }
-        debtRepository.save(debt);
-
         // Save the payment
-        return paymentRepository.save(payment);
-    }
-
-    /**
-     * Retrieves the current balance by subtracting all payment amounts.
-     *
-     * @return the current balance
-     */
-    public BigDecimal getCurrentBalance() {
-        List<Payment> payments = paymentRepository.findAll();
-        BigDecimal balance = BigDecimal.ZERO;
-
-        for (Payment payment : payments) {
-            balance = balance.subtract(payment.getAmount());
-        }
-
-        return balance;
+        Payment savedPayment = paymentRepository.save(payment);
+        ledgerService.applyDelta(LedgerEventType.PAYMENT_APPLIED, savedPayment.getId(), savedPayment.getAmount().negate());
+        balanceSnapshotService.applyLedgerChange(savedPayment.getDate(), savedPayment.getAmount().negate());
+        ledgerVersion.increment();
+        return savedPayment;
     }
 
     /**
@@ -74,57 +71,67 @@ public class PaymentService {
      * @param paymentId  the ID of the payment to update
      * @param paymentDto the updated payment DTO
      * @return the updated payment
-     * @throws RuntimeException if the debt or payment is not found
+     * @throws RuntimeException         if the debt or payment is not found
+     * @throws IllegalArgumentException if the increase of the payment exceeds the return amount of the debt
      */
+    @Transactional
     public Payment updatePayment(Long debtId, Long paymentId, PaymentDto paymentDto) {
-        Debt debt = debtRepository.findById(debtId)
-                .orElseThrow(() -> new RuntimeException("Debt not found with ID: " + debtId));
+        if (!debtRepository.existsById(debtId)) {
+            throw new RuntimeException("Debt not found with ID: " + debtId);
+        }
 
         Payment payment = paymentRepository.findById(paymentId)
                 .orElseThrow(() -> new RuntimeException("Payment not found with ID: " + paymentId));
 
-        validatePaymentBelongsToDebt(payment, debt);
+        validatePaymentBelongsToDebt(payment, debtId);
 
         BigDecimal previousPaymentAmount = payment.getAmount();
+        balanceSnapshotService.applyLedgerChange(payment.getDate(), previousPaymentAmount);
+        balanceSnapshotService.applyLedgerChange(paymentDto.getDate(), paymentDto.getAmount().negate());
 
         updatePaymentFields(payment, paymentDto);
 
         BigDecimal newPaymentAmount = payment.getAmount();
 
-        updateDebtReturnAmount(debt, previousPaymentAmount, newPaymentAmount);
+        applyPaymentToDebt(debtId, newPaymentAmount.subtract(previousPaymentAmount));
+        // The debt was loaded with the payment before the update statement, reload its current state
+        entityManager.refresh(payment.getDebt());
 
-        if (debt.getReturnAmount().compareTo(BigDecimal.ZERO) <= 0) {
-            debt.setDebtStatus(true);
-            debt.setNotified(false);
-        }
-
-        debtRepository.save(debt);
+        ledgerService.applyDelta(LedgerEventType.PAYMENT_UPDATED, paymentId, previousPaymentAmount.subtract(newPaymentAmount));
+        ledgerVersion.increment();
 
         return paymentRepository.save(payment);
     }
 
     /**
-     * Checks if the new return amount is valid based on the received amount of the debt.
+     * Subtracts a payment amount from the return amount of a debt in a single conditional update,
+     * closing the debt when nothing is left to return.
      *
-     * @param newReturnAmount the new return amount
-     * @param receivedAmount  the received amount of the debt
-     * @throws IllegalArgumentException if the new return amount exceeds the received amount
+     * @param debtId the ID of the debt
+     * @param amount the amount to subtract
+     * @throws RuntimeException         if the debt is not found
+     * @throws IllegalArgumentException if the amount exceeds the return amount of the debt
      */
-    private void checkReturnAmount(BigDecimal newReturnAmount, BigDecimal receivedAmount) {
-        if (newReturnAmount.compareTo(receivedAmount) > 0) {
+    private void applyPaymentToDebt(Long debtId, BigDecimal amount) {
+        if (debtRepository.applyPayment(debtId, amount) == 0) {
+            if (!debtRepository.existsById(debtId)) {
+                throw new RuntimeException("Debt not found with ID: " + debtId);
+            }
             throw new IllegalArgumentException("The return amount cannot exceed the received amount.");
         }
+        entityCacheService.evict(Debt.class, List.of(debtId));
+        paymentScheduleService.invalidate(debtId);
     }
 
     /**
      * Validates if a payment belongs to a specific debt.
      *
      * @param payment the payment to validate
-     * @param debt    the debt to check against
+     * @param debtId  the ID of the debt to check against
      * @throws IllegalArgumentException if the payment does not belong to the specified debt
      */
-    private void validatePaymentBelongsToDebt(Payment payment, Debt debt) {
-        if (!payment.getDebt().equals(debt)) {
+    private void validatePaymentBelongsToDebt(Payment payment, Long debtId) {
+        if (payment.getDebt() == null || !payment.getDebt().getId().equals(debtId)) {
             throw new IllegalArgumentException("Payment does not belong to the specified debt.");
         }
     }
@@ -141,24 +148,36 @@ public class PaymentService {
     }
 
     /**
-     * Updates the return amount of a debt based on the changes in payment amounts.
+     * Retrieves a page of payment views ordered by ID, starting after the given cursor.
      *
-     * @param debt                  the debt to update
-     * @param previousPaymentAmount the previous amount of the payment
-     * @param newPaymentAmount      the new amount of the payment
+     * @param afterId the ID of the last payment of the previous page, or null for the first page
+     * @param size    the maximum number of payments to return
+     * @return a page of payment views
      */
-    private void updateDebtReturnAmount(Debt debt, BigDecimal previousPaymentAmount, BigDecimal newPaymentAmount) {
-        BigDecimal returnAmountDifference = newPaymentAmount.subtract(previousPaymentAmount);
-        BigDecimal currentReturnAmount = debt.getReturnAmount();
-        BigDecimal newReturnAmount = currentReturnAmount.subtract(returnAmountDifference);
-        debt.setReturnAmount(newReturnAmount);
+    public List<PaymentViewDto> getPaymentsPage(Long afterId, int size) {
+        return paymentRepository.findViewPageAfterId(afterId != null ? afterId : 0L, PageRequest.ofSize(size));
     }
 
-    public List<Payment> getAllPayments() {
-        return paymentRepository.findAll();
+    /**
+     * Streams all payment views ordered by ID through a database cursor.
+     * The views are not managed by the persistence context, so memory use does not grow with the table size.
+     *
+     * @param consumer the consumer receiving each payment view
+     */
+    @Transactional(readOnly = true)
+    public void streamAllPayments(Consumer<PaymentViewDto> consumer) {
+        try (Stream<PaymentViewDto> payments = paymentRepository.streamAllViews()) {
+            payments.forEach(consumer);
+        }
     }
 
-    public List<Payment> getPaymentByDebtId(Long debtId) {
-        return paymentRepository.findAllByDebtId(debtId);
+    /**
+     * Retrieves the payments of a debt as flat views in a single query.
+     *
+     * @param debtId the ID of the debt
+     * @return the payment views of the debt ordered by ID
+     */
+    public List<PaymentViewDto> getPaymentByDebtId(Long debtId) {
+        return paymentRepository.findViewsByDebtId(debtId);
     }
 }
@@ -0,0 +1,180 @@
+package com.example.accounting_system.services;
+
+import com.example.accounting_system.dtos.CategorySummaryDto;
+import com.example.accounting_system.entities.Debt;
+import com.example.accounting_system.entities.LedgerBalance;
+import com.example.accounting_system.entities.Transaction;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.function.Function;
+
+/**
+ * Non-blocking reads of the balance, transactions, debts and category summaries over R2DBC.
+ * Waiting for the database holds neither a request thread nor a JDBC connection, and listings
+ * fetch rows from a cursor in chunks as the subscriber requests them.
+ */
+@Service
+public class ReactiveReadService {
+    private static final String TRANSACTION_COLUMNS = "t.id, t.date, t.category, t.amount, t.comment";
+    private static final String DEBT_COLUMNS = "id, start_date, end_date, category, received_amount, return_amount, " +
+            "periodic_payment, debt_status, is_notified, email, reminder, next_reminder_date";
+
+    private final DatabaseClient databaseClient;
+    private final int fetchSize;
+
+    public ReactiveReadService(DatabaseClient databaseClient, @Value("${reactive.fetch-size:500}") int fetchSize) {
+        this.databaseClient = databaseClient;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Reads the current balance from the ledger.
+     *
+     * @return the current balance
+     * @throws RuntimeException if the ledger row is missing
+     */
+    public Mono<BigDecimal> getBalance() {
+        return databaseClient.sql("select balance_amount from ledger_balance where id = :id")
+                .bind("id", LedgerBalance.LEDGER_ID)
+                .map(row -> row.get(0, BigDecimal.class))
+                .one()
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("Ledger balance not found with ID: " + LedgerBalance.LEDGER_ID)));
+    }
+
+    /**
+     * Lists transactions ordered by ID, starting after the given cursor.
+     *
+     * @param category the category to include, or null for all
+     * @param afterId  the ID of the last transaction already read, or null to start at the beginning
+     * @param limit    the maximum number of transactions, or null to read to the end
+     * @return the transactions
+     */
+    public Flux<Transaction> getTransactions(String category, Long afterId, Integer limit) {
+        return select(TRANSACTION_COLUMNS, Transaction.KEYED_TRANSACTIONS, "k.", category, afterId, limit, this::toTransaction);
+    }
+
+    /**
+     * Lists debts ordered by ID, starting after the given cursor.
+     *
+     * @param category the category to include, or null for all
+     * @param afterId  the ID of the last debt already read, or null to start at the beginning
+     * @param limit    the maximum number of debts, or null to read to the end
+     * @return the debts
+     */
+    public Flux<Debt> getDebts(String category, Long afterId, Integer limit) {
+        return select(DEBT_COLUMNS, "debts", "", category, afterId, limit, this::toDebt);
+    }
+
+    /**
+     * Retrieves count, sum, min, max and date range of every transaction and debt category.
+     *
+     * @return the category summaries, transactions first
+     */
+    public Flux<CategorySummaryDto> getCategorySummaries() {
+        return summarize(null);
+    }
+
+    /**
+     * Retrieves the summary of a single category.
+     *
+     * @param category the category to summarize
+     * @return the transaction and debt summaries of the category
+     * @throws RuntimeException if no data is found for the category
+     */
+    public Flux<CategorySummaryDto> getCategorySummary(String category) {
+        return summarize(category)
+                .switchIfEmpty(Flux.error(() -> new RuntimeException("No data found for category: " + category)));
+    }
+
+    private Flux<CategorySummaryDto> summarize(String category) {
+        return Flux.concat(
+                summarize("transaction", "amount", "date", "transactions", category),
+                summarize("debt", "received_amount", "start_date", "debts", category));
+    }
+
+    private Flux<CategorySummaryDto> summarize(String type, String amountColumn, String dateColumn, String table, String category) {
+        String sql = "select category, count(*) as count, sum(" + amountColumn + ") as total, min(" + amountColumn + ") as min_amount, " +
+                "max(" + amountColumn + ") as max_amount, min(" + dateColumn + ") as first_date, max(" + dateColumn + ") as last_date " +
+                "from " + table + (category != null ? " where category = :category" : "") +
+                " group by category order by category";
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql);
+        if (category != null) {
+            spec = spec.bind("category", category);
+        }
+        return spec.map(row -> new CategorySummaryDto(type,
+                        row.get("category", String.class),
+                        row.get("count", Long.class),
+                        row.get("total", BigDecimal.class),
+                        row.get("min_amount", BigDecimal.class),
+                        row.get("max_amount", BigDecimal.class),
+                        toDate(row.get("first_date", LocalDateTime.class)),
+                        toDate(row.get("last_date", LocalDateTime.class))))
+                .all();
+    }
+
+    /**
+     * Runs a keyset query over a table, or a join qualifying its id and category columns with {@code keyPrefix}.
+     * Without a limit the rows are fetched from a cursor {@code fetchSize} at a time, driven by the demand
+     * of the subscriber.
+     */
+    private <T> Flux<T> select(String columns, String from, String keyPrefix, String category, Long afterId, Integer limit,
+                               Function<Readable, T> mapper) {
+        String sql = "select " + columns + " from " + from + " where " + keyPrefix + "id > :afterId" +
+                (category != null ? " and " + keyPrefix + "category = :category" : "") +
+                " order by " + keyPrefix + "id" +
+                (limit != null ? " limit :limit" : "");
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql)
+                .bind("afterId", afterId != null ? afterId : 0L)
+                .filter((statement, next) -> next.execute(statement.fetchSize(fetchSize)));
+        if (category != null) {
+            spec = spec.bind("category", category);
+        }
+        if (limit != null) {
+            spec = spec.bind("limit", limit);
+        }
+        return spec.map(mapper).all();
+    }
+
+    private Transaction toTransaction(Readable row) {
+        return new Transaction(
+                row.get("id", Long.class),
+                toDate(row.get("date", LocalDateTime.class)),
+                row.get("category", String.class),
+                row.get("amount", BigDecimal.class),
+                row.get("comment", String.class));
+    }
+
+    private Debt toDebt(Readable row) {
+        Double periodicPayment = row.get("periodic_payment", Double.class);
+        return new Debt(
+                row.get("id", Long.class),
+                toDate(row.get("start_date", LocalDateTime.class)),
+                toDate(row.get("end_date", LocalDateTime.class)),
+                row.get("category", String.class),
+                row.get("received_amount", BigDecimal.class),
+                row.get("return_amount", BigDecimal.class),
+                periodicPayment != null ? periodicPayment : 0,
+                Boolean.TRUE.equals(row.get("debt_status", Boolean.class)),
+                Boolean.TRUE.equals(row.get("is_notified", Boolean.class)),
+                row.get("email", String.class),
+                row.get("reminder", String.class),
+                row.get("next_reminder_date", LocalDate.class));
+    }
+
+    /**
+     * Converts a timestamp column to the type Hibernate loads for {@link Date} fields, so both APIs serialize dates alike.
+     */
+    private static Date toDate(LocalDateTime dateTime) {
+        return dateTime != null ? Timestamp.valueOf(dateTime) : null;
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.accounting_system.services;
+
+import com.example.accounting_system.entities.ReminderOutbox;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the reminder outbox. Claimed reminders are split into chunks that are sent over a single SMTP
+ * connection each, with a bounded number of chunks in flight. Failed reminders are retried with backoff.
+ */
+@Component
+@Slf4j
+public class ReminderDispatcher {
+    private final ReminderOutboxService reminderOutboxService;
+    private final JavaMailSender javaMailSender;
+    private final ExecutorService sendExecutor;
+    private final int batchSize;
+    private final int connectionBatchSize;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final Duration sendingTimeout;
+    private final Timer sendSuccessTimer;
+    private final Timer sendFailureTimer;
+
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong retriedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+
+    public ReminderDispatcher(ReminderOutboxService reminderOutboxService,
+                              JavaMailSender javaMailSender,
+                              MeterRegistry meterRegistry,
+                              @Value("${reminders.dispatch.concurrency:4}") int concurrency,
+                              @Value("${reminders.dispatch.batch-size:200}") int batchSize,
+                              @Value("${reminders.dispatch.connection-batch-size:50}") int connectionBatchSize,
+                              @Value("${reminders.dispatch.max-attempts:5}") int maxAttempts,
+                              @Value("${reminders.dispatch.retry-backoff:1m}") Duration retryBackoff,
+                              @Value("${reminders.dispatch.sending-timeout:10m}") Duration sendingTimeout) {
+        this.reminderOutboxService = reminderOutboxService;
+        this.javaMailSender = javaMailSender;
+        this.sendExecutor = Executors.newFixedThreadPool(concurrency);
+        this.batchSize = batchSize;
+        this.connectionBatchSize = connectionBatchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+        this.sendingTimeout = sendingTimeout;
+
+        // SMTP latency per connection, tagged with whether the whole chunk was accepted
+        this.sendSuccessTimer = meterRegistry.timer("reminders.smtp.send", "outcome", "success");
+        this.sendFailureTimer = meterRegistry.timer("reminders.smtp.send", "outcome", "failure");
+        FunctionCounter.builder("reminders.dispatched", sentCount, AtomicLong::get).tag("outcome", "sent").register(meterRegistry);
+        FunctionCounter.builder("reminders.dispatched", retriedCount, AtomicLong::get).tag("outcome", "retried").register(meterRegistry);
+        FunctionCounter.builder("reminders.dispatched", failedCount, AtomicLong::get).tag("outcome", "failed").register(meterRegistry);
+    }
+
+    /**
+     * Scheduled task that sends pending reminders until the outbox has no due entries left.
+     */
+    @Scheduled(fixedDelayString = "${reminders.dispatch.interval:PT30S}")
+    public void dispatchPendingReminders() {
+        List<ReminderOutbox> reminders;
+        do {
+            reminders = reminderOutboxService.claimPending(batchSize, sendingTimeout);
+            dispatch(reminders);
+        } while (reminders.size() == batchSize);
+    }
+
+    /**
+     * Sends claimed reminders and records the outcome of each one in the outbox.
+     *
+     * @param reminders the claimed reminders
+     */
+    public void dispatch(List<ReminderOutbox> reminders) {
+        if (reminders.isEmpty()) {
+            return;
+        }
+        long startTime = System.nanoTime();
+
+        List<Callable<Map<Long, String>>> chunks = new ArrayList<>();
+        for (int from = 0; from < reminders.size(); from += connectionBatchSize) {
+            List<ReminderOutbox> chunk = reminders.subList(from, Math.min(from + connectionBatchSize, reminders.size()));
+            chunks.add(() -> sendChunk(chunk));
+        }
+
+        Map<Long, String> failures = new HashMap<>();
+        try {
+            List<Future<Map<Long, String>>> results = sendExecutor.invokeAll(chunks);
+            for (int i = 0; i < results.size(); i++) {
+                try {
+                    failures.putAll(results.get(i).get());
+                } catch (ExecutionException e) {
+                    int from = i * connectionBatchSize;
+                    failures.putAll(allFailed(reminders.subList(from, Math.min(from + connectionBatchSize, reminders.size())), e.getCause()));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            // Unconfirmed reminders are released by the sending timeout and retried
+            return;
+        }
+
+        List<Long> sentIds = reminders.stream()
+                .map(ReminderOutbox::getId)
+                .filter(id -> !failures.containsKey(id))
+                .toList();
+        if (!sentIds.isEmpty()) {
+            reminderOutboxService.markSent(sentIds);
+        }
+        int exhausted = failures.isEmpty() ? 0 : reminderOutboxService.markFailed(failures, maxAttempts, retryBackoff);
+
+        sentCount.addAndGet(sentIds.size());
+        retriedCount.addAndGet(failures.size() - exhausted);
+        failedCount.addAndGet(exhausted);
+        log.info("Dispatched {} reminders in {} ms: {} sent, {} scheduled for retry, {} failed",
+                reminders.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime),
+                sentIds.size(), failures.size() - exhausted, exhausted);
+    }
+
+    /**
+     * Sends a chunk of reminders over one SMTP connection.
+     *
+     * @param chunk the reminders to send
+     * @return the error message for each reminder that could not be sent
+     */
+    private Map<Long, String> sendChunk(List<ReminderOutbox> chunk) {
+        SimpleMailMessage[] messages = chunk.stream().map(this::toMailMessage).toArray(SimpleMailMessage[]::new);
+        long startTime = System.nanoTime();
+        try {
+            javaMailSender.send(messages);
+            sendSuccessTimer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+            return Map.of();
+        } catch (MailSendException e) {
+            sendFailureTimer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+            Map<Object, Exception> failedMessages = e.getFailedMessages();
+            if (failedMessages.isEmpty()) {
+                return allFailed(chunk, e);
+            }
+            Map<Long, String> failures = new HashMap<>();
+            for (int i = 0; i < messages.length; i++) {
+                Exception failure = failedMessages.get(messages[i]);
+                if (failure != null) {
+                    failures.put(chunk.get(i).getId(), String.valueOf(failure.getMessage()));
+                }
+            }
+            return failures;
+        } catch (MailException e) {
+            sendFailureTimer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+            return allFailed(chunk, e);
+        }
+    }
+
+    private Map<Long, String> allFailed(List<ReminderOutbox> chunk, Throwable cause) {
+        log.warn("Failed to send {} reminders: {}", chunk.size(), cause.getMessage());
+        Map<Long, String> failures = new HashMap<>();
+        chunk.forEach(reminder -> failures.put(reminder.getId(), String.valueOf(cause.getMessage())));
+        return failures;
+    }
+
+    private SimpleMailMessage toMailMessage(ReminderOutbox reminder) {
+        SimpleMailMessage mailMessage = new SimpleMailMessage();
+        mailMessage.setTo(reminder.getRecipient());
+        mailMessage.setSubject(reminder.getSubject());
+        mailMessage.setText(reminder.getBody());
+        return mailMessage;
+    }
+
+    public long getSentCount() {
+        return sentCount.get();
+    }
+
+    public long getRetriedCount() {
+        return retriedCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sendExecutor.shutdown();
+    }
+}
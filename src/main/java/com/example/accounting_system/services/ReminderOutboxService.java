@@ -0,0 +1,130 @@
+package com.example.accounting_system.services;
+
+import com.example.accounting_system.entities.OutboxStatus;
+import com.example.accounting_system.entities.ReminderOutbox;
+import com.example.accounting_system.repositories.ReminderOutboxRepository;
+import io.micrometer.observation.annotation.Observed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stores reminder emails in the outbox table and tracks their delivery state.
+ */
+@Service
+@Observed(name = "accounting.service")
+@Slf4j
+@RequiredArgsConstructor
+public class ReminderOutboxService {
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final ReminderOutboxRepository reminderOutboxRepository;
+
+    /**
+     * Adds a reminder to the outbox. The reminder is sent by the dispatcher once the surrounding transaction commits.
+     *
+     * @param debtId  the ID of the debt the reminder is for
+     * @param message the reminder message
+     * @return the stored outbox entry
+     */
+    @Transactional
+    public ReminderOutbox enqueue(Long debtId, SimpleMailMessage message) {
+        LocalDateTime now = LocalDateTime.now();
+        ReminderOutbox reminder = new ReminderOutbox();
+        reminder.setDebtId(debtId);
+        reminder.setRecipient(message.getTo()[0]);
+        reminder.setSubject(message.getSubject());
+        reminder.setBody(message.getText());
+        reminder.setStatus(OutboxStatus.PENDING);
+        reminder.setAttempts(0);
+        reminder.setNextAttemptAt(now);
+        reminder.setCreatedAt(now);
+        return reminderOutboxRepository.save(reminder);
+    }
+
+    /**
+     * Claims a batch of pending reminders for sending. Reminders left in the sending state
+     * for longer than the timeout (e.g. after a crash) are released first.
+     *
+     * @param limit          the maximum number of reminders to claim
+     * @param sendingTimeout how long a claimed reminder may stay unconfirmed
+     * @return the claimed reminders
+     */
+    @Transactional
+    public List<ReminderOutbox> claimPending(int limit, Duration sendingTimeout) {
+        LocalDateTime now = LocalDateTime.now();
+        int released = reminderOutboxRepository.releaseStale(OutboxStatus.SENDING, OutboxStatus.PENDING, now.minus(sendingTimeout));
+        if (released > 0) {
+            log.warn("Released {} reminders stuck in sending state", released);
+        }
+
+        List<ReminderOutbox> reminders = reminderOutboxRepository.lockPending(now, limit);
+        reminders.forEach(reminder -> {
+            reminder.setStatus(OutboxStatus.SENDING);
+            reminder.setLockedAt(now);
+        });
+        return reminderOutboxRepository.saveAll(reminders);
+    }
+
+    /**
+     * Marks reminders as sent.
+     *
+     * @param ids the IDs of the sent reminders
+     */
+    @Transactional
+    public void markSent(Collection<Long> ids) {
+        LocalDateTime now = LocalDateTime.now();
+        List<ReminderOutbox> reminders = reminderOutboxRepository.findAllById(ids);
+        reminders.forEach(reminder -> {
+            reminder.setStatus(OutboxStatus.SENT);
+            reminder.setAttempts(reminder.getAttempts() + 1);
+            reminder.setLockedAt(null);
+            reminder.setLastError(null);
+            reminder.setSentAt(now);
+        });
+        reminderOutboxRepository.saveAll(reminders);
+    }
+
+    /**
+     * Records failed delivery attempts. A reminder is retried with exponential backoff
+     * until it reaches the maximum number of attempts, after which it is marked as failed.
+     *
+     * @param errors      the error message for each failed reminder ID
+     * @param maxAttempts the maximum number of delivery attempts
+     * @param backoff     the delay before the first retry, doubled for every further attempt
+     * @return the number of reminders that will not be retried
+     */
+    @Transactional
+    public int markFailed(Map<Long, String> errors, int maxAttempts, Duration backoff) {
+        LocalDateTime now = LocalDateTime.now();
+        List<ReminderOutbox> reminders = reminderOutboxRepository.findAllById(errors.keySet());
+        int exhausted = 0;
+        for (ReminderOutbox reminder : reminders) {
+            int attempts = reminder.getAttempts() + 1;
+            reminder.setAttempts(attempts);
+            reminder.setLockedAt(null);
+            reminder.setLastError(truncate(errors.get(reminder.getId())));
+            if (attempts >= maxAttempts) {
+                reminder.setStatus(OutboxStatus.FAILED);
+                exhausted++;
+            } else {
+                reminder.setStatus(OutboxStatus.PENDING);
+                reminder.setNextAttemptAt(now.plus(backoff.multipliedBy(1L << Math.min(attempts - 1, 20))));
+            }
+        }
+        reminderOutboxRepository.saveAll(reminders);
+        return exhausted;
+    }
+
+    private String truncate(String error) {
+        return error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+}
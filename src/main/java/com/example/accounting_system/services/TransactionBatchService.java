@@ -0,0 +1,221 @@
+package com.example.accounting_system.services;
+
+import com.example.accounting_system.dtos.TransactionDto;
+import com.example.accounting_system.dtos.TransactionImportResultDto;
+import com.example.accounting_system.entities.Transaction;
+import com.example.accounting_system.events.LedgerEventType;
+import com.example.accounting_system.repositories.TransactionRepository;
+import com.example.accounting_system.util.Money;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import io.micrometer.observation.annotation.Observed;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Validates and inserts many transactions at once, using JDBC batching and a single balance check per batch.
+ */
+@Service
+@Observed(name = "accounting.service")
+@Slf4j
+@RequiredArgsConstructor
+public class TransactionBatchService {
+    private static final CsvMapper CSV_MAPPER = CsvMapper.builder()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+
+    private final TransactionRepository transactionRepository;
+    private final LedgerService ledgerService;
+    private final BalanceProvider balanceProvider;
+    private final EntityManager entityManager;
+    private final LedgerVersion ledgerVersion;
+    private final BalanceSnapshotService balanceSnapshotService;
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:500}")
+    private int batchSize;
+
+    /**
+     * Imports transactions in one database transaction. Rows are validated in order with the same income/outcome
+     * rules as {@link TransactionService#addTransaction}, against a balance read once and advanced row by row.
+     *
+     * @param transactionDtos the transactions to import
+     * @return a summary of the import
+     * @throws IllegalArgumentException if any row is invalid, in which case nothing is imported
+     */
+    @Transactional
+    public TransactionImportResultDto importTransactions(List<TransactionDto> transactionDtos) {
+        List<Transaction> transactions = validate(transactionDtos);
+        // Imported rows are rarely read back one by one, keep them out of the second-level cache
+        entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+
+        long totalCents = 0;
+        int incomeCount = 0;
+        for (int from = 0; from < transactions.size(); from += batchSize) {
+            List<Transaction> batch = transactions.subList(from, Math.min(from + batchSize, transactions.size()));
+            transactionRepository.saveAll(batch);
+            entityManager.flush();
+            entityManager.clear();
+        }
+        for (Transaction transaction : transactions) {
+            totalCents = Math.addExact(totalCents, Money.toCents(transaction.getAmount()));
+            if ("income".equals(transaction.getCategory())) {
+                incomeCount++;
+            }
+        }
+        BigDecimal totalAmount = Money.toBigDecimal(totalCents);
+        ledgerService.applyDelta(LedgerEventType.TRANSACTIONS_IMPORTED, null, totalAmount);
+        balanceSnapshotService.applyLedgerChanges(dailyAmounts(transactions));
+        ledgerVersion.increment();
+
+        log.info("Imported {} transactions, total amount {}", transactions.size(), totalAmount);
+        return new TransactionImportResultDto(transactions.size(), incomeCount, transactions.size() - incomeCount, totalAmount);
+    }
+
+    /**
+     * Saves transactions submitted one at a time together in one database transaction. Unlike an import, every row
+     * is accepted or rejected on its own: rows are checked in order with the rules of
+     * {@link TransactionService#addTransaction}, against a balance read once and advanced by the accepted rows.
+     * Every accepted row is recorded in the ledger as an added transaction, with a single balance update.
+     *
+     * @param transactionDtos the submitted transactions
+     * @param onRejected      receives the index and the reason of every rejected row
+     * @return the saved transactions in submission order, null for rejected rows
+     */
+    @Transactional
+    public List<Transaction> saveSubmitted(List<TransactionDto> transactionDtos, BiConsumer<Integer, RuntimeException> onRejected) {
+        long balanceCents = Money.toCents(balanceProvider.getBalance());
+        List<Transaction> results = new ArrayList<>(transactionDtos.size());
+        List<Transaction> accepted = new ArrayList<>(transactionDtos.size());
+
+        for (int i = 0; i < transactionDtos.size(); i++) {
+            TransactionDto transactionDto = transactionDtos.get(i);
+            Transaction transaction = null;
+            try {
+                if (transactionDto.getAmount() == null) {
+                    throw new IllegalArgumentException("Transaction amount is required");
+                }
+                long amountCents = Money.toCents(transactionDto.getAmount());
+                transaction = toTransaction(transactionDto, amountCents, balanceCents);
+                balanceCents = Math.addExact(balanceCents, amountCents);
+                accepted.add(transaction);
+            } catch (RuntimeException e) {
+                onRejected.accept(i, e);
+            }
+            results.add(transaction);
+        }
+
+        transactionRepository.saveAll(accepted);
+        Map<Long, BigDecimal> deltas = new LinkedHashMap<>();
+        for (Transaction transaction : accepted) {
+            deltas.put(transaction.getId(), transaction.getAmount());
+        }
+        ledgerService.applyDeltas(LedgerEventType.TRANSACTION_ADDED, deltas);
+        balanceSnapshotService.applyLedgerChanges(dailyAmounts(accepted));
+        ledgerVersion.increment();
+        return results;
+    }
+
+    /**
+     * Sums the amounts of transactions per day, leaving out those without a date.
+     *
+     * @param transactions the transactions
+     * @return the net amount per day in cents
+     */
+    private static Map<LocalDate, Long> dailyAmounts(List<Transaction> transactions) {
+        Map<LocalDate, Long> dailyAmounts = new HashMap<>();
+        for (Transaction transaction : transactions) {
+            if (transaction.getDate() != null) {
+                dailyAmounts.merge(BalanceSnapshotService.ledgerDay(transaction.getDate()),
+                        Money.toCents(transaction.getAmount()), Math::addExact);
+            }
+        }
+        return dailyAmounts;
+    }
+
+    /**
+     * Reads transactions from CSV with a header row. The columns {@code date} (yyyy-MM-dd), {@code amount}
+     * and {@code comment} are used, other columns are ignored.
+     *
+     * @param inputStream the CSV content
+     * @return the parsed transactions
+     * @throws IllegalArgumentException if the CSV cannot be parsed
+     */
+    public List<TransactionDto> readCsv(InputStream inputStream) {
+        try (MappingIterator<TransactionDto> rows = CSV_MAPPER.readerFor(TransactionDto.class)
+                .with(CsvSchema.emptySchema().withHeader())
+                .readValues(inputStream)) {
+            return rows.readAll();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid CSV: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Converts and validates transactions in order, reading the total balance once.
+     *
+     * @param transactionDtos the transactions to validate
+     * @return the transactions ready to be saved
+     * @throws IllegalArgumentException if a row is invalid
+     */
+    private List<Transaction> validate(List<TransactionDto> transactionDtos) {
+        long balanceCents = Money.toCents(balanceProvider.getBalance());
+        List<Transaction> transactions = new ArrayList<>(transactionDtos.size());
+
+        for (int i = 0; i < transactionDtos.size(); i++) {
+            TransactionDto transactionDto = transactionDtos.get(i);
+            if (transactionDto.getAmount() == null) {
+                throw new IllegalArgumentException("Row " + (i + 1) + ": amount is required");
+            }
+
+            long amountCents = Money.toCents(transactionDto.getAmount());
+            try {
+                transactions.add(toTransaction(transactionDto, amountCents, balanceCents));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Row " + (i + 1) + ": " + e.getMessage(), e);
+            }
+            balanceCents = Math.addExact(balanceCents, amountCents);
+        }
+        return transactions;
+    }
+
+    /**
+     * Converts a transaction DTO and sets its category, checking outcomes against a balance.
+     *
+     * @param transactionDto the transaction to convert
+     * @param amountCents    the amount of the transaction in cents
+     * @param balanceCents   the balance before the transaction in cents
+     * @return the transaction ready to be saved
+     * @throws RuntimeException if the transaction amount is invalid
+     */
+    private Transaction toTransaction(TransactionDto transactionDto, long amountCents, long balanceCents) {
+        Transaction transaction = new Transaction();
+        transaction.setDate(transactionDto.getDate());
+        transaction.setAmount(transactionDto.getAmount());
+        transaction.setComment(transactionDto.getComment());
+        if (amountCents <= 0) {
+            TransactionService.checkTransactionAmount(amountCents, balanceCents);
+            transaction.setCategory("outcome");
+        } else {
+            transaction.setCategory("income");
+        }
+        return transaction;
+    }
+}
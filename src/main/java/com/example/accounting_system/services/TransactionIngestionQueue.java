@@ -0,0 +1,227 @@
+package com.example.accounting_system.services;
+
+import com.example.accounting_system.dtos.TransactionDto;
+import com.example.accounting_system.entities.Transaction;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group commit for single transactions. Submitted transactions wait in a bounded queue that one writer thread
+ * drains in batches of up to {@code max-batch-size}, waiting at most {@code max-linger} for a batch to fill.
+ * Each batch is committed in one database transaction and the future of every caller completes after that commit.
+ * When a batch fails to commit, its transactions are retried one by one, so only the failing ones are rejected.
+ */
+@Component
+@Slf4j
+public class TransactionIngestionQueue {
+    private final TransactionBatchService transactionBatchService;
+    private final boolean enabled;
+    private final BlockingQueue<Submission> queue;
+    private final int maxBatchSize;
+    private final long maxLingerNanos;
+    private final Duration submitTimeout;
+    private final Timer latencyTimer;
+    private final Timer commitTimer;
+    private final DistributionSummary batchSizeSummary;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public TransactionIngestionQueue(TransactionBatchService transactionBatchService,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${transactions.ingestion.enabled:false}") boolean enabled,
+                                     @Value("${transactions.ingestion.capacity:10000}") int capacity,
+                                     @Value("${transactions.ingestion.max-batch-size:200}") int maxBatchSize,
+                                     @Value("${transactions.ingestion.max-linger:5ms}") Duration maxLinger,
+                                     @Value("${transactions.ingestion.submit-timeout:5s}") Duration submitTimeout) {
+        this.transactionBatchService = transactionBatchService;
+        this.enabled = enabled;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.maxBatchSize = maxBatchSize;
+        this.maxLingerNanos = maxLinger.toNanos();
+        this.submitTimeout = submitTimeout;
+
+        // Time from submission to commit per transaction, its count gives the ingestion throughput
+        this.latencyTimer = Timer.builder("transactions.ingestion.latency")
+                .publishPercentiles(0.5, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.commitTimer = meterRegistry.timer("transactions.ingestion.commit");
+        this.batchSizeSummary = meterRegistry.summary("transactions.ingestion.batch.size");
+        meterRegistry.gauge("transactions.ingestion.queue.size", queue, BlockingQueue::size);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::drain, "transaction-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Transaction ingestion queue started, max batch size {}, max linger {} µs",
+                maxBatchSize, TimeUnit.NANOSECONDS.toMicros(maxLingerNanos));
+    }
+
+    /**
+     * Stops accepting transactions and waits for the writer to commit the ones already queued.
+     * Transactions still queued after the writer stopped are rejected.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        List<Submission> leftover = new ArrayList<>();
+        queue.drainTo(leftover);
+        if (!leftover.isEmpty()) {
+            log.warn("Rejecting {} transactions queued after the writer stopped", leftover.size());
+            leftover.forEach(submission -> submission.future.completeExceptionally(
+                    new IllegalStateException("Transaction ingestion queue is not running")));
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues a transaction to be added with the next batch.
+     *
+     * @param transactionDto the transaction DTO
+     * @return a future completed with the created transaction once its batch is committed, or with the reason
+     * it was rejected
+     * @throws IllegalStateException if the queue is not running or stays full for the submit timeout
+     */
+    public CompletableFuture<Transaction> submit(TransactionDto transactionDto) {
+        if (!running) {
+            throw new IllegalStateException("Transaction ingestion queue is not running");
+        }
+        Submission submission = new Submission(transactionDto, System.nanoTime());
+        try {
+            if (!queue.offer(submission, submitTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new IllegalStateException("Transaction ingestion queue is full");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing a transaction", e);
+        }
+        // The queue may have stopped while waiting, with the writer gone before the offer. Unless the writer
+        // already took the submission, it would never be committed
+        if (!running && queue.remove(submission)) {
+            throw new IllegalStateException("Transaction ingestion queue is not running");
+        }
+        return submission.future;
+    }
+
+    private void drain() {
+        List<Submission> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Submission first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fill(batch);
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                log.error("Transaction writer failed", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Adds queued transactions to a batch until it is full or the linger time since its first transaction has passed.
+     */
+    private void fill(List<Submission> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + maxLingerNanos;
+        while (batch.size() < maxBatchSize) {
+            queue.drainTo(batch, maxBatchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= maxBatchSize || remaining <= 0) {
+                return;
+            }
+            Submission next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    /**
+     * Commits a batch and completes the future of every transaction in it. A batch that fails to commit is retried
+     * one transaction at a time, so a single failing transaction only fails its own future.
+     */
+    private void commit(List<Submission> batch) {
+        List<TransactionDto> transactionDtos = new ArrayList<>(batch.size());
+        for (Submission submission : batch) {
+            transactionDtos.add(submission.transactionDto);
+        }
+
+        List<Transaction> saved;
+        long commitStart = System.nanoTime();
+        try {
+            saved = transactionBatchService.saveSubmitted(transactionDtos,
+                    (index, e) -> batch.get(index).future.completeExceptionally(e));
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                log.warn("Failed to commit a submitted transaction", e);
+                batch.get(0).future.completeExceptionally(e);
+                return;
+            }
+            log.warn("Failed to commit {} submitted transactions, retrying them one by one", batch.size(), e);
+            for (Submission submission : batch) {
+                // Transactions rejected before the failure already have their future completed
+                if (!submission.future.isDone()) {
+                    commit(List.of(submission));
+                }
+            }
+            return;
+        }
+        long committed = System.nanoTime();
+        commitTimer.record(committed - commitStart, TimeUnit.NANOSECONDS);
+        batchSizeSummary.record(batch.size());
+
+        for (int i = 0; i < batch.size(); i++) {
+            Submission submission = batch.get(i);
+            if (saved.get(i) != null) {
+                latencyTimer.record(committed - submission.submittedAt, TimeUnit.NANOSECONDS);
+                submission.future.complete(saved.get(i));
+            }
+        }
+    }
+
+    private static final class Submission {
+        private final TransactionDto transactionDto;
+        private final long submittedAt;
+        private final CompletableFuture<Transaction> future = new CompletableFuture<>();
+
+        Submission(TransactionDto transactionDto, long submittedAt) {
+            this.transactionDto = transactionDto;
+            this.submittedAt = submittedAt;
+        }
+    }
+}
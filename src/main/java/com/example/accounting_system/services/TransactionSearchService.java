@@ -0,0 +1,175 @@
+package com.example.accounting_system.services;
+
+import com.example.accounting_system.dtos.TransactionSearchDto;
+import com.example.accounting_system.entities.Transaction;
+import com.example.accounting_system.entities.TransactionSort;
+import io.micrometer.observation.annotation.Observed;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Searches transactions by date, amount, category and comment text. Each filter and sort order is served by an
+ * index, and pages are read with a keyset cursor, so the cost of a page does not depend on the table size or on
+ * how deep the page is. Searches sorted by ID read through the transaction keys, so each row is read from its
+ * own partition only.
+ */
+@Service
+@Observed(name = "accounting.service")
+public class TransactionSearchService {
+    private static final String CURSOR_SEPARATOR = ",";
+    private static final RowMapper<Transaction> TRANSACTION_ROW_MAPPER = (rs, rowNum) -> new Transaction(
+            rs.getLong(1), rs.getTimestamp(2), rs.getString(3), rs.getBigDecimal(4), rs.getString(5));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public TransactionSearchService(DataSource dataSource) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+    }
+
+    /**
+     * Retrieves a page of the transactions matching the search. Transactions are ordered by the sort field, then by
+     * ID. When sorting by date or amount, transactions without one are not returned.
+     *
+     * @param search the filters and sort order
+     * @param after  the cursor of the last transaction of the previous page, or null for the first page
+     * @param size   the maximum number of transactions to return
+     * @return a page of transactions
+     * @throws IllegalArgumentException if the cursor is invalid
+     */
+    public List<Transaction> search(TransactionSearchDto search, String after, int size) {
+        TransactionSort sort = search.getSort();
+        String direction = search.getDirection() == Sort.Direction.DESC ? "desc" : "asc";
+        Query query = new Query(sort == TransactionSort.ID ? Transaction.KEYED_TRANSACTIONS : "transactions t")
+                .dateRange(search.getFrom(), search.getTo())
+                .amountRange(search.getMinAmount(), search.getMaxAmount())
+                .category(search.getCategory())
+                .text(search.getText());
+        if (sort != TransactionSort.ID) {
+            // Keeps the keyset comparison on the sort column well-defined
+            query.condition(sort.getColumn() + " is not null");
+        }
+        if (after != null) {
+            query.after(sort, search.getDirection() == Sort.Direction.DESC ? "<" : ">", after);
+        }
+        query.parameters.addValue("size", size);
+        String orderBy = sort == TransactionSort.ID
+                ? " order by k.id " + direction
+                : " order by " + sort.getColumn() + " " + direction + ", t.id " + direction;
+        return jdbcTemplate.query(query.sql + orderBy + " limit :size", query.parameters, TRANSACTION_ROW_MAPPER);
+    }
+
+    /**
+     * Returns the cursor of a transaction, to be passed as {@code after} to get the transactions following it.
+     *
+     * @param transaction a transaction returned by {@link #search}
+     * @param sort        the sort field of the search
+     * @return the cursor
+     */
+    public static String cursorOf(Transaction transaction, TransactionSort sort) {
+        return switch (sort) {
+            case ID -> String.valueOf(transaction.getId());
+            case DATE -> toLocalDateTime(transaction.getDate()) + CURSOR_SEPARATOR + transaction.getId();
+            case AMOUNT -> transaction.getAmount().toPlainString() + CURSOR_SEPARATOR + transaction.getId();
+        };
+    }
+
+    private static LocalDateTime toLocalDateTime(Date date) {
+        // Transactions read by the search keep the microseconds of the column
+        return date instanceof Timestamp timestamp
+                ? timestamp.toLocalDateTime()
+                : new Timestamp(date.getTime()).toLocalDateTime();
+    }
+
+    /**
+     * Builds the transactions select from the given filters.
+     */
+    private static final class Query {
+        private final StringBuilder sql;
+        private final MapSqlParameterSource parameters = new MapSqlParameterSource();
+        private String separator = " where ";
+
+        private Query(String from) {
+            sql = new StringBuilder("select t.id, t.date, t.category, t.amount, t.comment from ").append(from);
+        }
+
+        private Query dateRange(LocalDate from, LocalDate to) {
+            if (from != null) {
+                condition("t.date >= :from");
+                parameters.addValue("from", from.atStartOfDay());
+            }
+            if (to != null) {
+                condition("t.date < :to");
+                parameters.addValue("to", to.plusDays(1).atStartOfDay());
+            }
+            return this;
+        }
+
+        private Query amountRange(BigDecimal minAmount, BigDecimal maxAmount) {
+            if (minAmount != null) {
+                condition("t.amount >= :minAmount");
+                parameters.addValue("minAmount", minAmount);
+            }
+            if (maxAmount != null) {
+                condition("t.amount <= :maxAmount");
+                parameters.addValue("maxAmount", maxAmount);
+            }
+            return this;
+        }
+
+        private Query category(String category) {
+            if (category != null) {
+                condition("t.category = :category");
+                parameters.addValue("category", category);
+            }
+            return this;
+        }
+
+        private Query text(String text) {
+            if (text != null && !text.isBlank()) {
+                // Served by the trigram index on comment, the text is matched literally
+                condition("t.comment ilike :text");
+                parameters.addValue("text", "%" + text.replace("\\", "\\\\")
+                        .replace("%", "\\%")
+                        .replace("_", "\\_") + "%");
+            }
+            return this;
+        }
+
+        private void after(TransactionSort sort, String operator, String cursor) {
+            try {
+                if (sort == TransactionSort.ID) {
+                    condition("k.id " + operator + " :afterId");
+                    parameters.addValue("afterId", Long.parseLong(cursor));
+                    return;
+                }
+                int separatorIndex = cursor.lastIndexOf(CURSOR_SEPARATOR);
+                if (separatorIndex < 0) {
+                    throw new IllegalArgumentException("Invalid cursor: " + cursor);
+                }
+                String value = cursor.substring(0, separatorIndex);
+                condition("(" + sort.getColumn() + ", t.id) " + operator + " (:afterValue, :afterId)");
+                parameters.addValue("afterValue", sort == TransactionSort.DATE ? LocalDateTime.parse(value) : new BigDecimal(value));
+                parameters.addValue("afterId", Long.parseLong(cursor.substring(separatorIndex + 1)));
+            } catch (NumberFormatException | DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+            }
+        }
+
+        private void condition(String condition) {
+            sql.append(separator).append(condition);
+            separator = " and ";
+        }
+    }
+}
@@ -1,31 +1,40 @@
 package com.example.accounting_system.services;
 
+import com.example.accounting_system.dtos.BalanceStatisticDto;
 import com.example.accounting_system.dtos.TransactionDto;
-import com.example.accounting_system.entities.Balance;
+import com.example.accounting_system.entities.BalanceResolution;
 import com.example.accounting_system.entities.Transaction;
+import com.example.accounting_system.events.LedgerEventType;
 import com.example.accounting_system.repositories.BalanceRepository;
+import com.example.accounting_system.repositories.BalanceRollupRepository;
 import com.example.accounting_system.repositories.TransactionRepository;
+import com.example.accounting_system.util.Money;
+import io.micrometer.observation.annotation.Observed;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.ResponseEntity;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
+@Observed(name = "accounting.service")
 @Slf4j
 @RequiredArgsConstructor
 public class TransactionService {
     private final TransactionRepository transactionRepository;
     private final BalanceRepository balanceRepository;
-    private final RestTemplate restTemplate;
-    @Value("${server.url}")
-    private String url;
+    private final BalanceRollupRepository balanceRollupRepository;
+    private final LedgerService ledgerService;
+    private final BalanceProvider balanceProvider;
+    private final EntityManager entityManager;
+    private final LedgerVersion ledgerVersion;
+    private final BalanceSnapshotService balanceSnapshotService;
 
     /**
      * Adds a new transaction.
@@ -33,6 +42,7 @@ public class TransactionService {
      * @param transactionDto the transaction DTO
      * @return the created transaction
      */
+    @Transactional
     public Transaction addTransaction(TransactionDto transactionDto) {
         Transaction transaction = convertToTransaction(transactionDto);
         log.info("check transaction amount");
@@ -43,7 +53,11 @@ public class TransactionService {
             transaction.setCategory("income");
         }
         transactionDto.setAmount(transactionDto.getAmount());
-        return transactionRepository.save(transaction);
+        Transaction savedTransaction = transactionRepository.save(transaction);
+        ledgerService.applyDelta(LedgerEventType.TRANSACTION_ADDED, savedTransaction.getId(), savedTransaction.getAmount());
+        balanceSnapshotService.applyLedgerChange(savedTransaction.getDate(), savedTransaction.getAmount());
+        ledgerVersion.increment();
+        return savedTransaction;
     }
 
     /**
@@ -54,6 +68,7 @@ public class TransactionService {
      * @return the updated transaction
      * @throws RuntimeException if the transaction is not found
      */
+    @Transactional
     public Transaction updateTransaction(Long transactionId, TransactionDto transactionDto) {
         Transaction existTransaction = transactionRepository.findById(transactionId)
                 .orElseThrow(() -> new RuntimeException("Transaction not found with ID: " + transactionId));
@@ -64,10 +79,15 @@ public class TransactionService {
         } else {
             existTransaction.setCategory("income");
         }
+        BigDecimal previousAmount = existTransaction.getAmount() != null ? existTransaction.getAmount() : BigDecimal.ZERO;
+        balanceSnapshotService.applyLedgerChange(existTransaction.getDate(), previousAmount.negate());
+        balanceSnapshotService.applyLedgerChange(transactionDto.getDate(), transactionDto.getAmount());
         existTransaction.setAmount(transactionDto.getAmount());
+        ledgerService.applyDelta(LedgerEventType.TRANSACTION_UPDATED, transactionId, transactionDto.getAmount().subtract(previousAmount));
 
         existTransaction.setDate(transactionDto.getDate());
         existTransaction.setComment(transactionDto.getComment());
+        ledgerVersion.increment();
         return transactionRepository.save(existTransaction);
     }
 
@@ -84,28 +104,30 @@ public class TransactionService {
     }
 
     /**
-     * Retrieves all transactions.
+     * Retrieves a page of transactions ordered by ID, starting after the given cursor.
      *
-     * @return a list of all transactions
+     * @param afterId the ID of the last transaction of the previous page, or null for the first page
+     * @param size    the maximum number of transactions to return
+     * @return a page of transactions
      */
-    public List<Transaction> getAllTransactions() {
-        return transactionRepository.findAll();
+    public List<Transaction> getTransactionsPage(Long afterId, int size) {
+        return transactionRepository.findPageAfterId(afterId != null ? afterId : 0L, size);
     }
 
     /**
-     * Retrieves the current balance by summing all transaction amounts.
+     * Streams all transactions ordered by ID through a database cursor.
+     * Each transaction is detached after it is consumed, so memory use does not grow with the table size.
      *
-     * @return the current balance
+     * @param consumer the consumer receiving each transaction
      */
-    public BigDecimal getCurrentBalance() {
-        List<Transaction> transactions = transactionRepository.findAll();
-        BigDecimal balance = BigDecimal.ZERO;
-
-        for (Transaction transaction : transactions) {
-            balance = balance.add(transaction.getAmount());
+    @Transactional(readOnly = true)
+    public void streamAllTransactions(Consumer<Transaction> consumer) {
+        try (Stream<Transaction> transactions = transactionRepository.streamAll()) {
+            transactions.forEach(transaction -> {
+                consumer.accept(transaction);
+                entityManager.detach(transaction);
+            });
         }
-
-        return balance;
     }
 
     /**
@@ -114,11 +136,17 @@ public class TransactionService {
      * @param transactionId the ID of the transaction to remove
      * @throws RuntimeException if the transaction is not found
      */
+    @Transactional
     public void removeTransactionFromHistory(Long transactionId) {
-        transactionRepository.findById(transactionId)
+        Transaction transaction = transactionRepository.findById(transactionId)
                 .orElseThrow(() -> new RuntimeException("Transaction not found with ID: " + transactionId));
 
-        transactionRepository.deleteById(transactionId);
+        transactionRepository.delete(transaction);
+        if (transaction.getAmount() != null) {
+            ledgerService.applyDelta(LedgerEventType.TRANSACTION_REMOVED, transactionId, transaction.getAmount().negate());
+            balanceSnapshotService.applyLedgerChange(transaction.getDate(), transaction.getAmount().negate());
+        }
+        ledgerVersion.increment();
     }
 
     /**
@@ -127,7 +155,7 @@ public class TransactionService {
      * @param transactionDto the transaction DTO to convert
      * @return the converted Transaction entity
      */
-    private Transaction convertToTransaction(TransactionDto transactionDto) {
+    Transaction convertToTransaction(TransactionDto transactionDto) {
         Transaction transaction = new Transaction();
         transaction.setDate(transactionDto.getDate());
         transaction.setAmount(transactionDto.getAmount());
@@ -136,69 +164,74 @@ public class TransactionService {
     }
 
     /**
-     * Retrieves the total balance from an external API.
+     * Retrieves the total balance from the shared balance provider.
      *
      * @return the total balance
-     * @throws RuntimeException if the API call fails
      */
     public BigDecimal getTotalBalance() {
-        ResponseEntity<BigDecimal> response = restTemplate.getForEntity(url + "/api/v1/transaction/balance", BigDecimal.class);
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response.getBody();
-        } else {
-            throw new RuntimeException("Failed to retrieve total balance: " + response.getStatusCode());
-        }
+        return balanceProvider.getBalance();
     }
 
     /**
-     * Retrieves the balance statistics.
+     * Retrieves the balance statistics for a date range. Daily values come from the stored balances,
+     * weekly, monthly and yearly values from the precomputed rollups.
      *
-     * @return a list of balance statistics
+     * @param from       the first date of the range
+     * @param to         the last date of the range
+     * @param resolution the period length of each value
+     * @return a list of balance statistics ordered by date
+     * @throws IllegalArgumentException if the range is reversed
      */
-    public List<Balance> getBalanceStatistics() {
-        return balanceRepository.findAll();
+    public List<BalanceStatisticDto> getBalanceStatistics(LocalDate from, LocalDate to, BalanceResolution resolution) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("The start of the range must not be after its end");
+        }
+        if (resolution == BalanceResolution.DAY) {
+            return balanceRepository.findAllByDateBetweenOrderByDateAsc(from, to).stream()
+                    .map(balance -> new BalanceStatisticDto(balance.getDate(), balance.getBalanceAmount(),
+                            balance.getBalanceAmount(), balance.getBalanceAmount()))
+                    .toList();
+        }
+        return balanceRollupRepository.findAllByResolutionAndPeriodStartBetweenOrderByPeriodStartAsc(resolution, resolution.periodStart(from), to).stream()
+                .map(rollup -> new BalanceStatisticDto(rollup.getPeriodStart(), rollup.getBalanceAmount(),
+                        rollup.getMinAmount(), rollup.getMaxAmount()))
+                .toList();
     }
 
     /**
-     * Scheduled task that collects and saves the daily balance.
+     * Checks if the transaction amount is greater than the total balance.
+     * If the transaction amount is less than or equal to zero, it is multiplied by -1.
+     * Throws a RuntimeException if the transaction amount is greater than the total balance or the total balance is zero.
+     *
+     * @param transactionAmount The amount of the transaction to be checked
+     * @throws RuntimeException If the transaction amount is invalid
      */
-    @Scheduled(cron = "0 0 0 * * *") // Run daily at midnight
-    public void collectDailyBalance() {
-        BigDecimal currentBalance = getTotalBalance();
-        createBalance(currentBalance);
+    public void checkTransactionAmount(BigDecimal transactionAmount) {
+        checkTransactionAmount(transactionAmount, getTotalBalance());
     }
 
     /**
-     * Creates a new balance entry with the specified amount.
+     * Checks a transaction amount against a known total balance, using the same rules as
+     * {@link #checkTransactionAmount(BigDecimal)}.
      *
-     * @param amount the amount to set for the balance
+     * @param transactionAmount The amount of the transaction to be checked
+     * @param totalBalance      The total balance to check against
+     * @throws RuntimeException If the transaction amount is invalid
      */
-    private void createBalance(BigDecimal amount) {
-        LocalDate currentDate = LocalDate.now();
-        Balance balance = new Balance();
-        balance.setDate(currentDate);
-        balance.setBalanceAmount(amount);
-
-        balanceRepository.save(balance);
+    public static void checkTransactionAmount(BigDecimal transactionAmount, BigDecimal totalBalance) {
+        checkTransactionAmount(Money.toCents(transactionAmount), Money.toCents(totalBalance));
     }
 
     /**
-     * Checks if the transaction amount is greater than the total balance.
-     * If the transaction amount is less than or equal to zero, it is multiplied by -1.
-     * Throws a RuntimeException if the transaction amount is greater than the total balance or the total balance is zero.
+     * Checks a transaction amount against a balance, both in cents. Same rules as
+     * {@link #checkTransactionAmount(BigDecimal, BigDecimal)}, for loops that keep a running balance in cents.
      *
-     * @param transactionAmount The amount of the transaction to be checked
+     * @param transactionCents The amount of the transaction in cents
+     * @param balanceCents     The total balance in cents
      * @throws RuntimeException If the transaction amount is invalid
      */
-    public void checkTransactionAmount(BigDecimal transactionAmount) {
-        BigDecimal totalBalance = getTotalBalance();
-
-        // multiply transaction amount by 1, if transaction amount less than 0
-        if (transactionAmount.compareTo(BigDecimal.ZERO) <= 0) {
-            transactionAmount = transactionAmount.multiply(BigDecimal.valueOf(-1));
-        }
-
-        if (totalBalance.compareTo(BigDecimal.ZERO) == 0 || transactionAmount.compareTo(totalBalance) > 0) {
+    public static void checkTransactionAmount(long transactionCents, long balanceCents) {
+        if (balanceCents == 0 || Math.absExact(transactionCents) > balanceCents) {
             throw new RuntimeException("Invalid transaction amount");
         }
     }
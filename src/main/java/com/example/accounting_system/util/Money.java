@@ -0,0 +1,43 @@
+package com.example.accounting_system.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Conversions between decimal amounts and long numbers of cents, the minor unit of the {@code numeric(38,2)}
+ * amount columns. Loops that aggregate many amounts convert each amount once and sum the cents with
+ * {@link Math#addExact(long, long)}, which is exact and fails on overflow instead of wrapping around.
+ * The sum itself allocates nothing, unlike a chain of {@link BigDecimal#add} calls; the conversion of
+ * an amount still creates one temporary decimal.
+ * <p>
+ * This is deliberately not a {@code Money} value type: the entities, DTOs and JSON keep {@link BigDecimal} amounts,
+ * and a wrapper around the cents would allocate an object per amount in the very loops these helpers keep
+ * allocation-free.
+ */
+public final class Money {
+    private static final int SCALE = 2;
+
+    private Money() {
+    }
+
+    /**
+     * Converts a decimal amount to cents, rounding half up to cents like Postgres does for {@code numeric(38,2)}.
+     *
+     * @param amount the amount
+     * @return the amount in cents
+     * @throws ArithmeticException if the amount does not fit in a long number of cents
+     */
+    public static long toCents(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).movePointRight(SCALE).longValueExact();
+    }
+
+    /**
+     * Converts cents to a decimal amount with scale 2.
+     *
+     * @param cents the amount in cents
+     * @return the decimal amount
+     */
+    public static BigDecimal toBigDecimal(long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+}
@@ -0,0 +1,6 @@
+-- Cover the aggregated columns so category summaries can be answered from the index alone
+CREATE INDEX idx_transactions_category
+    ON transactions (category, id) INCLUDE (amount, date);
+
+CREATE INDEX idx_debts_category
+    ON debts (category, id) INCLUDE (received_amount, start_date);
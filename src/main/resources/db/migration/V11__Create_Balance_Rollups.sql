@@ -0,0 +1,25 @@
+CREATE INDEX idx_balance_date ON balance (date);
+
+-- Closing, min and max balance per week (starting Monday), month and year
+CREATE TABLE balance_rollup
+(
+    id             bigserial primary key,
+    resolution     varchar(10)    not null,
+    period_start   date           not null,
+    last_date      date           not null,
+    balance_amount numeric(38, 2) not null,
+    min_amount     numeric(38, 2) not null,
+    max_amount     numeric(38, 2) not null,
+    constraint UK_BALANCE_ROLLUP_PERIOD unique (resolution, period_start)
+);
+
+INSERT INTO balance_rollup (resolution, period_start, last_date, balance_amount, min_amount, max_amount)
+SELECT r.resolution,
+       date_trunc(lower(r.resolution), b.date)::date,
+       max(b.date),
+       (array_agg(b.balance_amount ORDER BY b.date DESC, b.id DESC))[1],
+       min(b.balance_amount),
+       max(b.balance_amount)
+FROM balance b
+         CROSS JOIN (VALUES ('WEEK'), ('MONTH'), ('YEAR')) AS r(resolution)
+GROUP BY r.resolution, date_trunc(lower(r.resolution), b.date);
@@ -0,0 +1,3 @@
+-- Cover the payment columns so payment listings of a debt can be answered from the index alone
+CREATE INDEX idx_payments_debt
+    ON payments (debt_id, id) INCLUDE (amount, date);
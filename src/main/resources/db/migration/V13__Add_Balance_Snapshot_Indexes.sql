@@ -0,0 +1,18 @@
+-- One snapshot per day, the collector and the backfill insert with ON CONFLICT (date)
+DELETE
+FROM balance b
+WHERE EXISTS (SELECT 1 FROM balance newer WHERE newer.date = b.date AND newer.id > b.id);
+
+DROP INDEX idx_balance_date;
+CREATE UNIQUE INDEX idx_balance_date
+    ON balance (date);
+
+-- Date-bounded sums of the ledger tables
+CREATE INDEX idx_transactions_date
+    ON transactions (date) INCLUDE (amount);
+
+CREATE INDEX idx_payments_date
+    ON payments (date) INCLUDE (amount);
+
+CREATE INDEX idx_debts_start_date
+    ON debts (start_date) INCLUDE (received_amount);
@@ -0,0 +1,100 @@
+-- Range partitions by month of the date column. Rows without a date, or dated outside the created months,
+-- go to the default partition. Postgres only enforces unique keys containing the partition key, so ids are
+-- kept unique by their sequences and served by a plain index.
+
+CREATE SCHEMA IF NOT EXISTS archive;
+
+-- Creates the partition of a month if it does not exist yet, also used by PartitionMaintenanceService
+CREATE FUNCTION create_monthly_partition(parent text, month date) RETURNS boolean AS
+$$
+DECLARE
+    month_start    date := date_trunc('month', month)::date;
+    partition_name text := parent || '_p' || to_char(month, 'YYYYMM');
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN false;
+    END IF;
+    EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, parent, month_start, (month_start + interval '1 month')::date);
+    RETURN true;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Transactions
+ALTER TABLE transactions
+    RENAME TO transactions_unpartitioned;
+ALTER SEQUENCE transactions_seq OWNED BY NONE;
+
+CREATE TABLE transactions
+(
+    id       bigint not null default nextval('transactions_seq'),
+    amount   numeric(38, 2),
+    category varchar(40),
+    date     timestamp(6),
+    comment  varchar(1000)
+) PARTITION BY RANGE (date);
+
+-- Months of the last ten years with rows, up to three months ahead
+SELECT create_monthly_partition('transactions', month::date)
+FROM generate_series(date_trunc('month', greatest(coalesce((SELECT min(date) FROM transactions_unpartitioned), current_date),
+                                                  current_date - interval '10 years')),
+                     (date_trunc('month', current_date) + interval '3 months')::timestamp,
+                     interval '1 month') AS month;
+
+CREATE TABLE transactions_default PARTITION OF transactions DEFAULT;
+
+INSERT INTO transactions (id, amount, category, date, comment)
+SELECT id, amount, category, date, comment
+FROM transactions_unpartitioned;
+
+DROP TABLE transactions_unpartitioned;
+ALTER SEQUENCE transactions_seq OWNED BY transactions.id;
+
+CREATE INDEX idx_transactions_id
+    ON transactions (id);
+
+CREATE INDEX idx_transactions_category
+    ON transactions (category, id) INCLUDE (amount, date);
+
+CREATE INDEX idx_transactions_date
+    ON transactions (date) INCLUDE (amount);
+
+-- Payments
+ALTER TABLE payments
+    RENAME TO payments_unpartitioned;
+ALTER SEQUENCE payments_id_seq OWNED BY NONE;
+
+CREATE TABLE payments
+(
+    id      bigint         not null default nextval('payments_id_seq'),
+    amount  numeric(38, 2) not null,
+    date    timestamp(6),
+    debt_id bigint
+) PARTITION BY RANGE (date);
+
+SELECT create_monthly_partition('payments', month::date)
+FROM generate_series(date_trunc('month', greatest(coalesce((SELECT min(date) FROM payments_unpartitioned), current_date),
+                                                  current_date - interval '10 years')),
+                     (date_trunc('month', current_date) + interval '3 months')::timestamp,
+                     interval '1 month') AS month;
+
+CREATE TABLE payments_default PARTITION OF payments DEFAULT;
+
+INSERT INTO payments (id, amount, date, debt_id)
+SELECT id, amount, date, debt_id
+FROM payments_unpartitioned;
+
+DROP TABLE payments_unpartitioned;
+ALTER SEQUENCE payments_id_seq OWNED BY payments.id;
+
+ALTER TABLE payments
+    ADD CONSTRAINT FK_PAYMENTS_DEBTS foreign key (debt_id) references debts;
+
+CREATE INDEX idx_payments_id
+    ON payments (id);
+
+CREATE INDEX idx_payments_debt
+    ON payments (debt_id, id) INCLUDE (amount, date);
+
+CREATE INDEX idx_payments_date
+    ON payments (date) INCLUDE (amount);
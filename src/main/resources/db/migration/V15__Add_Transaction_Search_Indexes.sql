@@ -0,0 +1,14 @@
+-- Indexes of the transaction search. The date and amount indexes end with the id, so keyset pages sorted on
+-- them are read straight from the index. The date index keeps amount included for the balance snapshots.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+DROP INDEX idx_transactions_date;
+
+CREATE INDEX idx_transactions_date
+    ON transactions (date, id) INCLUDE (amount);
+
+CREATE INDEX idx_transactions_amount
+    ON transactions (amount, id);
+
+CREATE INDEX idx_transactions_comment
+    ON transactions USING gin (comment gin_trgm_ops);
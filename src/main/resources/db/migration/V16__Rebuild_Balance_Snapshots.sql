@@ -0,0 +1,49 @@
+-- Snapshots stored before the backfill, including the random V5 values, are not always the balance of the ledger
+-- rows dated before their day. The backfill keeps the snapshots it finds, so the wrong ones are corrected here from
+-- the ledger, together with the rollups built from them. Snapshots that already match, and the history beyond the
+-- backfill range, are kept as they are.
+CREATE TEMPORARY TABLE ledger_snapshots AS
+SELECT day, coalesce(sum(amount) OVER (ORDER BY day ROWS BETWEEN UNBOUNDED PRECEDING AND 1 PRECEDING), 0) AS balance_amount
+FROM (SELECT day, sum(amount) AS amount
+      FROM (SELECT date::date AS day, amount FROM transactions WHERE date IS NOT NULL
+            UNION ALL SELECT date::date, -amount FROM payments WHERE date IS NOT NULL
+            UNION ALL SELECT start_date::date, received_amount FROM debts WHERE start_date IS NOT NULL
+            UNION ALL SELECT date, 0 FROM balance) ledger
+      GROUP BY day) days;
+
+UPDATE balance b
+SET balance_amount = l.balance_amount
+FROM ledger_snapshots l
+WHERE l.day = b.date
+  AND b.balance_amount <> l.balance_amount;
+
+-- Closing, min and max balance of every period, as in V11, now from the corrected snapshots
+CREATE TEMPORARY TABLE snapshot_periods AS
+SELECT r.resolution,
+       date_trunc(lower(r.resolution), b.date)::date AS period_start,
+       max(b.date)                                   AS last_date,
+       (array_agg(b.balance_amount ORDER BY b.date DESC))[1] AS balance_amount,
+       min(b.balance_amount)                         AS min_amount,
+       max(b.balance_amount)                         AS max_amount
+FROM balance b
+         CROSS JOIN (VALUES ('WEEK'), ('MONTH'), ('YEAR')) AS r(resolution)
+GROUP BY r.resolution, date_trunc(lower(r.resolution), b.date);
+
+DELETE
+FROM balance_rollup r
+WHERE NOT EXISTS (SELECT 1
+                  FROM snapshot_periods p
+                  WHERE p.resolution = r.resolution
+                    AND p.period_start = r.period_start
+                    AND p.last_date = r.last_date
+                    AND p.balance_amount = r.balance_amount
+                    AND p.min_amount = r.min_amount
+                    AND p.max_amount = r.max_amount);
+
+INSERT INTO balance_rollup (resolution, period_start, last_date, balance_amount, min_amount, max_amount)
+SELECT resolution, period_start, last_date, balance_amount, min_amount, max_amount
+FROM snapshot_periods
+ON CONFLICT (resolution, period_start) DO NOTHING;
+
+DROP TABLE ledger_snapshots;
+DROP TABLE snapshot_periods;
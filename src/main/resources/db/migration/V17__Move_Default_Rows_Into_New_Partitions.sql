@@ -0,0 +1,39 @@
+-- Creating a partition fails while the default partition holds rows of its month, so those rows stayed in the
+-- default partition for good. They are now moved out, the partition created and the rows inserted back, under
+-- a lock that keeps new rows of the month out meanwhile.
+CREATE OR REPLACE FUNCTION create_monthly_partition(parent text, month date) RETURNS boolean AS
+$$
+DECLARE
+    month_start    date := date_trunc('month', month)::date;
+    month_end      date := (date_trunc('month', month) + interval '1 month')::date;
+    partition_name text := parent || '_p' || to_char(month, 'YYYYMM');
+    default_name   text := parent || '_default';
+    has_default    boolean := to_regclass(default_name) IS NOT NULL;
+    moved          bigint := 0;
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN false;
+    END IF;
+    -- Creating the partition locks the parent exclusively anyway, taking it first avoids a lock upgrade
+    EXECUTE format('LOCK TABLE %I IN ACCESS EXCLUSIVE MODE', parent);
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN false;
+    END IF;
+    IF has_default THEN
+        EXECUTE format('CREATE TEMPORARY TABLE default_partition_rows (LIKE %I) ON COMMIT DROP', parent);
+        EXECUTE format('WITH moved_rows AS (DELETE FROM %I WHERE date >= %L AND date < %L RETURNING *) ' ||
+                       'INSERT INTO default_partition_rows SELECT * FROM moved_rows', default_name, month_start, month_end);
+        GET DIAGNOSTICS moved = ROW_COUNT;
+    END IF;
+    EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, parent, month_start, month_end);
+    IF has_default THEN
+        EXECUTE format('INSERT INTO %I SELECT * FROM default_partition_rows', parent);
+        DROP TABLE default_partition_rows;
+    END IF;
+    IF moved > 0 THEN
+        RAISE NOTICE 'Moved % rows of % from % to %', moved, month_start, default_name, partition_name;
+    END IF;
+    RETURN true;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,36 @@
+-- Payments are read by debt and by id, never by month, and a partitioned table cannot have a primary key on id
+-- alone. The table goes back to a plain one with its primary key.
+ALTER TABLE payments
+    RENAME TO payments_partitioned;
+ALTER SEQUENCE payments_id_seq OWNED BY NONE;
+
+CREATE TABLE payments
+(
+    id      bigint         not null default nextval('payments_id_seq'),
+    amount  numeric(38, 2) not null,
+    date    timestamp(6),
+    debt_id bigint
+);
+
+-- Ids were only kept unique by the sequence, a duplicate gets a new one
+INSERT INTO payments (id, amount, date, debt_id)
+SELECT CASE WHEN row_number() OVER (PARTITION BY id ORDER BY date, debt_id) = 1 THEN id ELSE nextval('payments_id_seq') END,
+       amount,
+       date,
+       debt_id
+FROM payments_partitioned;
+
+DROP TABLE payments_partitioned;
+ALTER SEQUENCE payments_id_seq OWNED BY payments.id;
+
+ALTER TABLE payments
+    ADD CONSTRAINT payments_pkey primary key (id);
+
+ALTER TABLE payments
+    ADD CONSTRAINT FK_PAYMENTS_DEBTS foreign key (debt_id) references debts;
+
+CREATE INDEX idx_payments_debt
+    ON payments (debt_id, id) INCLUDE (amount, date);
+
+CREATE INDEX idx_payments_date
+    ON payments (date) INCLUDE (amount);
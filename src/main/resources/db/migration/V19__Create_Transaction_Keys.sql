@@ -0,0 +1,48 @@
+-- A partitioned table only enforces keys containing its partition key, and a lookup by id alone probes the id
+-- index of every partition. transaction_keys holds the id of every transaction with its date and category:
+-- its primary key keeps ids unique across partitions, and id lookups join through it to the single partition
+-- holding the row.
+CREATE TABLE transaction_keys
+(
+    id       bigint primary key,
+    date     timestamp(6),
+    category varchar(40)
+);
+
+-- Ids were only kept unique by the sequence, a duplicate gets a new one
+WITH duplicates AS (SELECT tableoid, ctid
+                    FROM (SELECT tableoid, ctid, row_number() OVER (PARTITION BY id ORDER BY date) AS n
+                          FROM transactions) numbered
+                    WHERE n > 1)
+UPDATE transactions t
+SET id = nextval('transactions_seq')
+FROM duplicates d
+WHERE t.tableoid = d.tableoid
+  AND t.ctid = d.ctid;
+
+INSERT INTO transaction_keys (id, date, category)
+SELECT id, date, category
+FROM transactions;
+
+CREATE INDEX idx_transaction_keys_category
+    ON transaction_keys (category, id);
+
+-- A row moving to another partition on update may fire a delete and an insert instead of an update, both are handled
+CREATE FUNCTION maintain_transaction_keys() RETURNS trigger AS
+$$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        DELETE FROM transaction_keys WHERE id = OLD.id;
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        INSERT INTO transaction_keys (id, date, category) VALUES (NEW.id, NEW.date, NEW.category);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_transaction_keys
+    AFTER INSERT OR UPDATE OR DELETE
+    ON transactions
+    FOR EACH ROW
+EXECUTE FUNCTION maintain_transaction_keys();
@@ -0,0 +1,7 @@
+-- Net amount and row count per day of the transactions moved to the archive schema, so balances keep counting them
+CREATE TABLE archived_amounts
+(
+    day       date           primary key,
+    amount    numeric(38, 2) not null,
+    row_count bigint         not null
+);
@@ -0,0 +1,7 @@
+-- Amounts of writes dated before stored balance snapshots, applied to the snapshots and rollups off the write path
+CREATE TABLE balance_adjustments
+(
+    id     bigserial primary key,
+    day    date           not null,
+    amount numeric(38, 2) not null
+);
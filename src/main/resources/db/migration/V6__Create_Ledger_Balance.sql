@@ -0,0 +1,11 @@
+CREATE TABLE ledger_balance
+(
+    id             bigint primary key,
+    balance_amount numeric(38, 2) not null
+);
+
+INSERT INTO ledger_balance (id, balance_amount)
+SELECT 1,
+       (SELECT coalesce(sum(amount), 0) FROM transactions)
+           - (SELECT coalesce(sum(amount), 0) FROM payments)
+           + (SELECT coalesce(sum(received_amount), 0) FROM debts);
@@ -0,0 +1,13 @@
+ALTER TABLE debts
+    ADD COLUMN next_reminder_date date;
+
+-- Open debts start from their first installment, the reminder job moves stale dates forward on its next run
+UPDATE debts
+SET next_reminder_date = start_date::date
+WHERE NOT debt_status
+  AND start_date IS NOT NULL
+  AND end_date IS NOT NULL;
+
+CREATE INDEX idx_debts_next_reminder_date
+    ON debts (next_reminder_date)
+    WHERE is_notified AND NOT debt_status;
@@ -0,0 +1,19 @@
+CREATE TABLE reminder_outbox
+(
+    id              bigserial primary key,
+    debt_id         bigint,
+    recipient       varchar(60)  not null,
+    subject         varchar(200) not null,
+    body            text         not null,
+    status          varchar(20)  not null,
+    attempts        integer      not null,
+    next_attempt_at timestamp(6) not null,
+    locked_at       timestamp(6),
+    last_error      varchar(1000),
+    created_at      timestamp(6) not null,
+    sent_at         timestamp(6)
+);
+
+CREATE INDEX idx_reminder_outbox_pending
+    ON reminder_outbox (next_attempt_at)
+    WHERE status = 'PENDING';
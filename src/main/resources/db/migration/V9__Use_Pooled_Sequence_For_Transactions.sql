@@ -0,0 +1,11 @@
+-- Sequence with an increment matching the Hibernate allocation size, so inserts can be batched
+CREATE SEQUENCE transactions_seq INCREMENT BY 50;
+
+SELECT setval('transactions_seq', (SELECT coalesce(max(id), 0) + 1 FROM transactions));
+
+ALTER TABLE transactions
+    ALTER COLUMN id SET DEFAULT nextval('transactions_seq');
+
+ALTER SEQUENCE transactions_seq OWNED BY transactions.id;
+
+DROP SEQUENCE IF EXISTS transactions_id_seq;
@@ -0,0 +1,113 @@
+package com.example.accounting_system.config;
+
+import com.example.accounting_system.services.LedgerVersion;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LedgerETagFilterTest {
+
+    private final LedgerVersion ledgerVersion = new LedgerVersion();
+    private final LedgerETagFilter filter = new LedgerETagFilter(ledgerVersion, DataSize.ofKilobytes(2));
+    private final AtomicInteger controllerCalls = new AtomicInteger();
+
+    @Test
+    void answersAnUnchangedVersionWithNotModified() throws Exception {
+        MockHttpServletResponse first = get("/api/v1/transaction/balance", null, null);
+        String etag = first.getHeader(HttpHeaders.ETAG);
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(etag).startsWith("\"").doesNotStartWith("\"W/");
+
+        MockHttpServletResponse second = get("/api/v1/transaction/balance", etag, null);
+        assertThat(second.getStatus()).isEqualTo(304);
+        assertThat(second.getContentLength()).isZero();
+        assertThat(controllerCalls).hasValue(1);
+
+        ledgerVersion.increment();
+        MockHttpServletResponse third = get("/api/v1/transaction/balance", etag, null);
+        assertThat(third.getStatus()).isEqualTo(200);
+        assertThat(third.getHeader(HttpHeaders.ETAG)).isNotEqualTo(etag);
+        assertThat(controllerCalls).hasValue(2);
+    }
+
+    @Test
+    void compressesLargeResponsesWithTheirOwnTag() throws Exception {
+        MockHttpServletResponse plain = get("/api/v1/transaction", null, null);
+        MockHttpServletResponse compressed = get("/api/v1/transaction", null, "gzip, deflate");
+
+        assertThat(compressed.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(compressed.getHeader(HttpHeaders.ETAG)).isNotEqualTo(plain.getHeader(HttpHeaders.ETAG));
+        assertThat(compressed.getContentAsByteArray().length).isLessThan(plain.getContentAsByteArray().length);
+        try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(compressed.getContentAsByteArray()))) {
+            assertThat(input.readAllBytes()).isEqualTo(plain.getContentAsByteArray());
+        }
+    }
+
+    @Test
+    void leavesOtherRequestsUntagged() throws Exception {
+        assertThat(get("/api/v1/transaction/balance/journal", null, null).getHeader(HttpHeaders.ETAG)).isNull();
+        assertThat(get("/api/v1/debt/1/schedule", null, null).getHeader(HttpHeaders.ETAG)).isNull();
+        MockHttpServletRequest stream = new MockHttpServletRequest("GET", "/api/v1/transaction");
+        stream.setParameter("stream", "true");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(stream, response, new MockFilterChain(new ListServlet()));
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isNull();
+    }
+
+    @Test
+    void tagsPagesRequestedWithStreamFalse() throws Exception {
+        MockHttpServletRequest page = new MockHttpServletRequest("GET", "/api/v1/transaction");
+        page.setParameter("stream", "false");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(page, response, new MockFilterChain(new ListServlet()));
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isNotNull();
+    }
+
+    @Test
+    void matchesAnyListedTag() {
+        assertThat(LedgerETagFilter.matches("\"a-1\", W/\"a-2\"", "\"a-2\"")).isTrue();
+        assertThat(LedgerETagFilter.matches("*", "\"a-2\"")).isTrue();
+        assertThat(LedgerETagFilter.matches("\"a-1\"", "\"a-2\"")).isFalse();
+        assertThat(LedgerETagFilter.matches(null, "\"a-2\"")).isFalse();
+    }
+
+    private MockHttpServletResponse get(String uri, String ifNoneMatch, String acceptEncoding) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        if (acceptEncoding != null) {
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain(new ListServlet()));
+        return response;
+    }
+
+    private class ListServlet extends HttpServlet {
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            controllerCalls.incrementAndGet();
+            response.setContentType("application/json");
+            StringBuilder body = new StringBuilder("[");
+            for (int i = 0; i < 200; i++) {
+                body.append(i > 0 ? "," : "").append("{\"id\":").append(i).append(",\"category\":\"income\"}");
+            }
+            response.getOutputStream().write(body.append("]").toString().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
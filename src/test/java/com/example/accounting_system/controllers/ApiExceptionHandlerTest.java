@@ -0,0 +1,34 @@
+package com.example.accounting_system.controllers;
+
+import com.example.accounting_system.services.CategoryService;
+import com.example.accounting_system.services.DebtService;
+import com.example.accounting_system.services.NotificationService;
+import com.example.accounting_system.services.PaymentService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ApiExceptionHandlerTest {
+
+    private final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(
+                    new DebtController(mock(DebtService.class), mock(NotificationService.class),
+                            mock(PaymentService.class), new ObjectMapper()),
+                    new CategoryController(mock(CategoryService.class)))
+            .setControllerAdvice(new ApiExceptionHandler())
+            .build();
+
+    @Test
+    void rejectsInvalidPageSizesOfEveryListAsBadRequests() throws Exception {
+        mockMvc.perform(get("/api/v1/debt").param("size", "0")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/debt/payments").param("size", "-1")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/debt/1/schedule").param("size", "0")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/categories/food/transactions").param("size", "0")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/categories/food/debts").param("size", "0")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/debt").param("size", "10")).andExpect(status().isOk());
+    }
+}
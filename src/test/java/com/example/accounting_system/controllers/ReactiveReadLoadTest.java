@@ -0,0 +1,114 @@
+package com.example.accounting_system.controllers;
+
+import com.example.accounting_system.PostgresIntegrationTest;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.PoolMetrics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.mail.username=test", "spring.mail.password=test",
+        "server.tomcat.threads.max=" + ReactiveReadLoadTest.TOMCAT_THREADS,
+        "spring.r2dbc.pool.max-size=" + ReactiveReadLoadTest.POOL_SIZE})
+class ReactiveReadLoadTest extends PostgresIntegrationTest {
+
+    static final int TOMCAT_THREADS = 8;
+    static final int POOL_SIZE = 4;
+    private static final int REQUESTS = 1000;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ConnectionPool connectionPool;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(30))
+            .build();
+
+    @Test
+    void requestsWaitingForTheDatabaseDoNotHoldRequestThreads() throws Exception {
+        BigDecimal balance = jdbcTemplate.queryForObject("select balance_amount from ledger_balance where id = 1", BigDecimal.class);
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>(REQUESTS);
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                // Every balance read now waits in Postgres until the lock is released
+                statement.execute("lock table ledger_balance in access exclusive mode");
+            }
+
+            for (int i = 0; i < REQUESTS; i++) {
+                responses.add(httpClient.sendAsync(get("/api/v1/reactive/balance"), HttpResponse.BodyHandlers.ofString()));
+            }
+
+            // Every request is inside the application at once: the pool connections wait on the lock, the rest on the pool
+            PoolMetrics metrics = connectionPool.getMetrics().orElseThrow();
+            long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(1);
+            while (metrics.acquiredSize() + metrics.pendingAcquireSize() < REQUESTS && System.nanoTime() < deadline) {
+                Thread.sleep(50);
+            }
+            assertEquals(POOL_SIZE, metrics.acquiredSize());
+            assertEquals(REQUESTS - POOL_SIZE, metrics.pendingAcquireSize());
+
+            // Far more requests are in flight than Tomcat has threads, yet a servlet endpoint is still served
+            HttpResponse<String> statistics = httpClient.send(get("/api/v1/cache/statistics"), HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, statistics.statusCode());
+            assertTrue(responses.stream().noneMatch(CompletableFuture::isDone));
+
+            connection.rollback();
+        }
+
+        CompletableFuture.allOf(responses.toArray(CompletableFuture[]::new)).get(2, TimeUnit.MINUTES);
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            assertEquals(200, response.get().statusCode());
+            assertEquals(0, balance.compareTo(new BigDecimal(response.get().body())));
+        }
+    }
+
+    @Test
+    void transactionStreamReturnsEveryRow() throws Exception {
+        jdbcTemplate.update("insert into transactions (id, date, category, amount, comment) " +
+                "select nextval('transactions_seq'), now(), 'stream', 1.00, 'row ' || n from generate_series(1, 10000) n");
+
+        HttpResponse<Stream<String>> response = httpClient.send(get("/api/v1/reactive/transactions/stream?category=stream"),
+                HttpResponse.BodyHandlers.ofLines());
+
+        assertEquals(200, response.statusCode());
+        assertEquals(10000, response.body().filter(line -> !line.isBlank()).count());
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofMinutes(2))
+                .build();
+    }
+}
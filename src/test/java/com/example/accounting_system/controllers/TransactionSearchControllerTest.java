@@ -0,0 +1,54 @@
+package com.example.accounting_system.controllers;
+
+import com.example.accounting_system.services.BalanceProvider;
+import com.example.accounting_system.services.BalanceSnapshotService;
+import com.example.accounting_system.services.LedgerJournal;
+import com.example.accounting_system.services.LedgerService;
+import com.example.accounting_system.services.TransactionBatchService;
+import com.example.accounting_system.services.TransactionIngestionQueue;
+import com.example.accounting_system.services.TransactionSearchService;
+import com.example.accounting_system.services.TransactionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class TransactionSearchControllerTest {
+
+    private final TransactionSearchService transactionSearchService = mock(TransactionSearchService.class);
+    private final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new TransactionController(
+                    mock(TransactionService.class),
+                    mock(LedgerService.class),
+                    mock(BalanceProvider.class),
+                    mock(BalanceSnapshotService.class),
+                    mock(LedgerJournal.class),
+                    mock(TransactionBatchService.class),
+                    mock(TransactionIngestionQueue.class),
+                    transactionSearchService,
+                    new ObjectMapper()))
+            .setControllerAdvice(new ApiExceptionHandler())
+            .build();
+
+    @Test
+    void rejectsInvalidSearchParametersAsBadRequests() throws Exception {
+        when(transactionSearchService.search(any(), eq("yesterday"), anyInt()))
+                .thenThrow(new IllegalArgumentException("Invalid cursor: yesterday"));
+        when(transactionSearchService.search(any(), eq(null), anyInt())).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/v1/transaction/search").param("sort", "name")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/transaction/search").param("direction", "up")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/transaction/search").param("size", "0")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/transaction/search").param("after", "yesterday")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/transaction/search").param("sort", "amount")).andExpect(status().isOk());
+    }
+}
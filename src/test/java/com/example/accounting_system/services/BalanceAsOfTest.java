@@ -0,0 +1,140 @@
+package com.example.accounting_system.services;
+
+import com.example.accounting_system.PostgresIntegrationTest;
+import com.example.accounting_system.dtos.TransactionDto;
+import com.example.accounting_system.entities.Transaction;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BalanceAsOfTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private BalanceSnapshotService balanceSnapshotService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Test
+    void balanceAsOfMatchesTheSumOfTheRowsDatedUpToTheDay() {
+        jdbcTemplate.update("delete from balance_adjustments");
+        jdbcTemplate.update("delete from balance_rollup");
+        jdbcTemplate.update("delete from balance");
+        // One income per day over two years, dated in the past
+        jdbcTemplate.update("insert into transactions (id, date, category, amount, comment) " +
+                "select nextval('transactions_seq'), current_date - n, 'income', n % 97 + 0.25, 'history' " +
+                "from generate_series(1, 730) n");
+
+        assertThat(balanceSnapshotService.backfillMissingSnapshots()).isGreaterThan(0);
+        assertThat(balanceSnapshotService.backfillMissingSnapshots()).isZero();
+
+        for (LocalDate day : new LocalDate[]{LocalDate.now().minusDays(700), LocalDate.now().minusDays(365), LocalDate.now().minusDays(1)}) {
+            BigDecimal expected = jdbcTemplate.queryForObject(
+                    "select (select coalesce(sum(amount), 0) from transactions where date < ?) " +
+                            "- (select coalesce(sum(amount), 0) from payments where date < ?) " +
+                            "+ (select coalesce(sum(received_amount), 0) from debts where start_date < ?)",
+                    BigDecimal.class, day.plusDays(1), day.plusDays(1), day.plusDays(1));
+            assertThat(balanceSnapshotService.getBalanceAsOf(day)).isEqualByComparingTo(expected);
+        }
+    }
+
+    @Test
+    void snapshotsStoredBeforeTheRebuildAreCorrectedFromTheLedger() {
+        jdbcTemplate.update("delete from balance_adjustments");
+        jdbcTemplate.update("delete from balance_rollup");
+        jdbcTemplate.update("delete from balance");
+        jdbcTemplate.update("insert into transactions (id, date, category, amount, comment) " +
+                "select nextval('transactions_seq'), current_date - n, 'income', n % 89 + 0.5, 'history' " +
+                "from generate_series(1, 120) n");
+        // Random snapshots, as seeded by V5, and rollups built from them
+        jdbcTemplate.update("insert into balance (date, balance_amount) " +
+                "select current_date - n, round(random()::numeric * 1000, 2) from generate_series(1, 50) n");
+        // A snapshot older than the backfill range, which the backfill could not recompute
+        jdbcTemplate.update("insert into balance (date, balance_amount) values (current_date - 4000, 12.34)");
+        jdbcTemplate.update("insert into balance_rollup (resolution, period_start, last_date, balance_amount, min_amount, max_amount) " +
+                "select 'MONTH', date_trunc('month', date)::date, max(date), max(balance_amount), min(balance_amount), max(balance_amount) " +
+                "from balance group by date_trunc('month', date) on conflict do nothing");
+
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V16__Rebuild_Balance_Snapshots.sql")).execute(dataSource);
+        balanceSnapshotService.backfillMissingSnapshots();
+
+        assertSnapshotsMatchTheLedger();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from balance where date = current_date - 4000", Integer.class))
+                .isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from balance where date >= current_date - 50", Integer.class))
+                .isEqualTo(51);
+    }
+
+    @Test
+    void backDatedWritesAfterTheBackfillAreAppliedToTheLaterSnapshots() {
+        jdbcTemplate.update("delete from balance_adjustments");
+        jdbcTemplate.update("delete from balance_rollup");
+        jdbcTemplate.update("delete from balance");
+        jdbcTemplate.update("insert into transactions (id, date, category, amount, comment) " +
+                "select nextval('transactions_seq'), current_date - n, 'income', n % 83 + 0.75, 'history' " +
+                "from generate_series(1, 400) n");
+        balanceSnapshotService.backfillMissingSnapshots();
+
+        Transaction added = transactionService.addTransaction(transaction(LocalDate.now().minusDays(300), "125.50"));
+        transactionService.addTransaction(transaction(LocalDate.now().minusDays(20), "-40.25"));
+        transactionService.updateTransaction(added.getId(), transaction(LocalDate.now().minusDays(150), "99.99"));
+        Transaction removed = transactionService.addTransaction(transaction(LocalDate.now().minusDays(90), "10.00"));
+        transactionService.removeTransactionFromHistory(removed.getId());
+
+        // The adjustments are still pending: the balances include them, the snapshots not yet
+        assertBalancesAsOfMatchTheLedger();
+        balanceSnapshotService.applyPendingAdjustments();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from balance_adjustments", Integer.class)).isZero();
+        assertSnapshotsMatchTheLedger();
+        assertBalancesAsOfMatchTheLedger();
+    }
+
+    private static TransactionDto transaction(LocalDate date, String amount) {
+        TransactionDto transactionDto = new TransactionDto();
+        transactionDto.setDate(Date.valueOf(date));
+        transactionDto.setAmount(new BigDecimal(amount));
+        transactionDto.setComment("back-dated");
+        return transactionDto;
+    }
+
+    private void assertBalancesAsOfMatchTheLedger() {
+        for (LocalDate day : List.of(LocalDate.now().minusDays(350), LocalDate.now().minusDays(200), LocalDate.now().minusDays(100), LocalDate.now().minusDays(1))) {
+            BigDecimal expected = jdbcTemplate.queryForObject(
+                    "select (select coalesce(sum(amount), 0) from transactions where date < ?) " +
+                            "- (select coalesce(sum(amount), 0) from payments where date < ?) " +
+                            "+ (select coalesce(sum(received_amount), 0) from debts where start_date < ?)",
+                    BigDecimal.class, day.plusDays(1), day.plusDays(1), day.plusDays(1));
+            assertThat(balanceSnapshotService.getBalanceAsOf(day)).isEqualByComparingTo(expected);
+        }
+    }
+
+    private void assertSnapshotsMatchTheLedger() {
+        Integer wrongSnapshots = jdbcTemplate.queryForObject("select count(*) from balance b where b.balance_amount <> " +
+                "(select coalesce(sum(amount), 0) from transactions where date < b.date) " +
+                "- (select coalesce(sum(amount), 0) from payments where date < b.date) " +
+                "+ (select coalesce(sum(received_amount), 0) from debts where start_date < b.date)", Integer.class);
+        assertThat(wrongSnapshots).isZero();
+        Integer wrongRollups = jdbcTemplate.queryForObject("select count(*) from balance_rollup r where (r.min_amount, r.max_amount, r.balance_amount) <> " +
+                "(select min(b.balance_amount), max(b.balance_amount), " +
+                "(array_agg(b.balance_amount order by b.date desc))[1] from balance b " +
+                "where date_trunc(lower(r.resolution), b.date)::date = r.period_start)", Integer.class);
+        assertThat(wrongRollups).isZero();
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.accounting_system.services;
+
+import com.example.accounting_system.repositories.ArchivedAmountRepository;
+import com.example.accounting_system.repositories.DebtRepository;
+import com.example.accounting_system.repositories.LedgerBalanceRepository;
+import com.example.accounting_system.repositories.PaymentRepository;
+import com.example.accounting_system.repositories.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Measures the balance read used by the balance endpoint and the overdraft check.
+ * The ledger lookup is stubbed, so the miss case measures the provider overhead without the database round trip.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BalanceProviderBenchmark {
+    private BalanceProvider balanceProvider;
+
+    @Setup
+    public void setUp() {
+        balanceProvider = new BalanceProvider(ledgerServiceReturning(new BigDecimal("123456.78")), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(balanceProvider, "ttl", Duration.ofMinutes(1));
+    }
+
+    /**
+     * Creates a ledger service whose balance is a constant. A subclass rather than a Mockito stub, so the stub
+     * adds no overhead to the measured call.
+     */
+    private static LedgerService ledgerServiceReturning(BigDecimal balance) {
+        return new LedgerService(
+                mock(LedgerBalanceRepository.class),
+                mock(TransactionRepository.class),
+                mock(PaymentRepository.class),
+                mock(DebtRepository.class),
+                mock(ArchivedAmountRepository.class),
+                mock(ApplicationEventPublisher.class),
+                new LedgerVersion(),
+                new SimpleMeterRegistry()) {
+            @Override
+            public BigDecimal getBalance() {
+                return balance;
+            }
+        };
+    }
+
+    @Benchmark
+    @Threads(4)
+    public BigDecimal cachedBalance() {
+        return balanceProvider.getBalance();
+    }
+
+    @Benchmark
+    public BigDecimal balanceAfterInvalidation() {
+        balanceProvider.invalidate();
+        return balanceProvider.getBalance();
+    }
+}
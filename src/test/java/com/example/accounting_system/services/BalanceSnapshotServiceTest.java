@@ -0,0 +1,44 @@
+package com.example.accounting_system.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BalanceSnapshotServiceTest {
+
+    private static final LocalDate START = LocalDate.of(2023, 1, 1);
+
+    @Test
+    void rebuildsGapsFromTheStoredSnapshotBeforeThem() {
+        Map<LocalDate, Long> stored = Map.of(START, 1000L, START.plusDays(3), 5000L);
+        List<LocalDate> missing = List.of(START.plusDays(1), START.plusDays(2), START.plusDays(4), START.plusDays(5));
+        Map<LocalDate, Long> dailyAmounts = Map.of(START, 100L, START.plusDays(1), -50L, START.plusDays(4), 7L);
+
+        Map<LocalDate, Long> rebuilt = BalanceSnapshotService.rebuild(START, 1000L, stored, missing, dailyAmounts);
+
+        assertThat(rebuilt).containsExactly(
+                Map.entry(START.plusDays(1), 1100L),
+                Map.entry(START.plusDays(2), 1050L),
+                // The stored snapshot of day 3 is trusted, not recomputed from the days before it
+                Map.entry(START.plusDays(4), 5000L),
+                Map.entry(START.plusDays(5), 5007L));
+    }
+
+    @Test
+    void rebuildsEveryDayWhenNothingIsStored() {
+        List<LocalDate> missing = START.datesUntil(START.plusDays(366)).toList();
+
+        Map<LocalDate, Long> rebuilt = BalanceSnapshotService.rebuild(START, 0L, Map.of(), missing,
+                Map.of(START, 250L, START.plusDays(100), -100L));
+
+        assertThat(rebuilt).hasSize(366);
+        assertThat(rebuilt.get(START)).isZero();
+        assertThat(rebuilt.get(START.plusDays(1))).isEqualTo(250L);
+        assertThat(rebuilt.get(START.plusDays(100))).isEqualTo(250L);
+        assertThat(rebuilt.get(START.plusDays(365))).isEqualTo(150L);
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.accounting_system.services;
+
+import com.example.accounting_system.dtos.DebtDto;
+import com.example.accounting_system.dtos.InstallmentDto;
+import com.example.accounting_system.entities.Debt;
+import com.example.accounting_system.repositories.DebtRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mail.SimpleMailMessage;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DebtServiceBenchmark {
+
+    /**
+     * Debt length in days: one month and five years.
+     */
+    @Param({"30", "1825"})
+    private int durationDays;
+
+    /**
+     * Days between installments.
+     */
+    @Param({"1", "30"})
+    private double periodicPayment;
+
+    private DebtService debtService;
+    private PaymentScheduleService paymentScheduleService;
+    private Debt debt;
+    private DebtDto debtDto;
+    private LocalDate midDate;
+    private InstallmentDto installment;
+
+    @Setup
+    public void setUp() {
+        paymentScheduleService = new PaymentScheduleService(1000);
+        // Only the conversion, the schedule and the reminder are measured, the persistence collaborators are unused
+        debtService = new DebtService(
+                mock(DebtRepository.class),
+                mock(LedgerService.class),
+                mock(ReminderOutboxService.class),
+                paymentScheduleService,
+                mock(EntityManager.class),
+                new SimpleMeterRegistry(),
+                new LedgerVersion(),
+                mock(BalanceSnapshotService.class));
+
+        LocalDate startDate = LocalDate.now();
+        Date start = Date.from(startDate.atStartOfDay(ZoneId.systemDefault()).toInstant());
+        Date end = Date.from(startDate.plusDays(durationDays).atStartOfDay(ZoneId.systemDefault()).toInstant());
+
+        debtDto = new DebtDto();
+        debtDto.setStartDate(start);
+        debtDto.setEndDate(end);
+        debtDto.setCategory("car loan");
+        debtDto.setReceivedAmount(new BigDecimal("15000.00"));
+        debtDto.setReturnAmount(new BigDecimal("16250.50"));
+        debtDto.setPeriodicPayment(periodicPayment);
+        debtDto.setReminder("Transfer from the savings account");
+
+        debt = debtService.convertToDebt(debtDto);
+        debt.setId(1L);
+        debt.setEmail("debtor@example.com");
+
+        midDate = startDate.plusDays(durationDays / 2);
+        installment = paymentScheduleService.getSchedule(debt).installmentDue(midDate);
+    }
+
+    @Benchmark
+    public InstallmentDto installmentDue() {
+        return paymentScheduleService.getSchedule(debt).installmentDue(midDate);
+    }
+
+    @Benchmark
+    public SimpleMailMessage buildReminderMessage() {
+        return debtService.buildReminderMessage(debt, installment);
+    }
+
+    @Benchmark
+    public Debt convertToDebt() {
+        return debtService.convertToDebt(debtDto);
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.accounting_system.services;
+
+import com.example.accounting_system.dtos.LedgerJournalStateDto;
+import com.example.accounting_system.events.LedgerChangedEvent;
+import com.example.accounting_system.events.LedgerEventType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LedgerJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private final LedgerService ledgerService = mock(LedgerService.class);
+
+    @Test
+    void rebuildsStateFromSnapshotAndLaterEvents() throws Exception {
+        when(ledgerService.getBalance()).thenReturn(new BigDecimal("100.00"));
+        LedgerJournal journal = journal(4);
+        journal.open();
+        for (long id = 1; id <= 10; id++) {
+            journal.onLedgerChanged(new LedgerChangedEvent(LedgerEventType.TRANSACTION_ADDED, id, new BigDecimal("2.50")));
+        }
+        journal.onLedgerChanged(new LedgerChangedEvent(LedgerEventType.PAYMENT_APPLIED, 1L, new BigDecimal("-5")));
+        LedgerJournalStateDto before = journal.getState();
+
+        // Reopen without the shutdown snapshot, as after a crash
+        when(ledgerService.getBalance()).thenReturn(new BigDecimal("120.00"));
+        LedgerJournal reopened = journal(4);
+        reopened.open();
+        LedgerJournalStateDto after = reopened.getState();
+
+        assertThat(after.getSequence()).isEqualTo(12).isEqualTo(before.getSequence());
+        assertThat(after.getBalance()).isEqualByComparingTo("120.00").isEqualByComparingTo(before.getBalance());
+        assertThat(after.getEventCounts().get(LedgerEventType.TRANSACTION_ADDED)).isEqualTo(10);
+        assertThat(after.getEventAmounts().get(LedgerEventType.TRANSACTION_ADDED)).isEqualByComparingTo("25.00");
+        assertThat(after.getEventAmounts().get(LedgerEventType.PAYMENT_APPLIED)).isEqualByComparingTo("-5.00");
+        assertThat(Files.exists(directory.resolve("ledger.snapshot"))).isTrue();
+        reopened.close();
+    }
+
+    @Test
+    void stopsReplayAtTornRecordAndOverwritesIt() throws Exception {
+        when(ledgerService.getBalance()).thenReturn(BigDecimal.ZERO);
+        LedgerJournal journal = journal(1000);
+        journal.open();
+        journal.onLedgerChanged(new LedgerChangedEvent(LedgerEventType.DEBT_CREATED, 1L, new BigDecimal("10")));
+        journal.onLedgerChanged(new LedgerChangedEvent(LedgerEventType.DEBT_CREATED, 2L, new BigDecimal("20")));
+
+        // Corrupt the amount of the last record
+        try (RandomAccessFile file = new RandomAccessFile(directory.resolve("ledger.journal").toFile(), "rw")) {
+            file.seek(2L * LedgerJournal.RECORD_SIZE + 24);
+            file.writeLong(42);
+        }
+
+        when(ledgerService.getBalance()).thenReturn(new BigDecimal("10.00"));
+        LedgerJournal reopened = journal(1000);
+        reopened.open();
+        assertThat(reopened.getState().getSequence()).isEqualTo(2);
+        assertThat(reopened.getState().getBalance()).isEqualByComparingTo("10.00");
+
+        reopened.onLedgerChanged(new LedgerChangedEvent(LedgerEventType.DEBT_UPDATED, 1L, new BigDecimal("1")));
+        assertThat(reopened.getState().getSequence()).isEqualTo(3);
+        assertThat(reopened.getState().getBalance()).isEqualByComparingTo("11.00");
+        reopened.close();
+    }
+
+    @Test
+    void resynchronizesWithTheLedgerAfterLostEvents() throws Exception {
+        when(ledgerService.getBalance()).thenReturn(new BigDecimal("50.00"));
+        LedgerJournal journal = journal(1000);
+        journal.open();
+        journal.onLedgerChanged(new LedgerChangedEvent(LedgerEventType.TRANSACTION_ADDED, 1L, new BigDecimal("5")));
+
+        // A committed change whose event was never appended
+        when(ledgerService.getBalance()).thenReturn(new BigDecimal("62.00"));
+        LedgerJournal reopened = journal(1000);
+        reopened.open();
+
+        assertThat(reopened.getState().getBalance()).isEqualByComparingTo("62.00");
+        assertThat(reopened.getState().getSequence()).isEqualTo(3);
+        assertThat(reopened.getState().getEventCounts().get(LedgerEventType.BALANCE_RECALCULATED)).isEqualTo(1);
+        reopened.close();
+    }
+
+    private LedgerJournal journal(int snapshotInterval) {
+        // A small region makes the records span several mappings
+        return new LedgerJournal(ledgerService, true, directory, LedgerJournal.RECORD_SIZE * 3L, snapshotInterval);
+    }
+}
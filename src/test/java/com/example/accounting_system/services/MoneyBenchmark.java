@@ -0,0 +1,65 @@
+package com.example.accounting_system.services;
+
+import com.example.accounting_system.util.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    /**
+     * Number of amounts summed per invocation.
+     */
+    @Param({"10000", "1000000"})
+    private int size;
+
+    private BigDecimal[] amounts;
+    private long[] cents;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        amounts = new BigDecimal[size];
+        cents = new long[size];
+        for (int i = 0; i < size; i++) {
+            long value = random.nextInt(2_000_000) - 1_000_000;
+            amounts[i] = BigDecimal.valueOf(value, 2);
+            cents[i] = value;
+        }
+    }
+
+    @Benchmark
+    public BigDecimal sumBigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (BigDecimal amount : amounts) {
+            total = total.add(amount);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long sumConvertedCents() {
+        long total = 0;
+        for (BigDecimal amount : amounts) {
+            total = Math.addExact(total, Money.toCents(amount));
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long sumCents() {
+        long total = 0;
+        for (long value : cents) {
+            total = Math.addExact(total, value);
+        }
+        return total;
+    }
+}
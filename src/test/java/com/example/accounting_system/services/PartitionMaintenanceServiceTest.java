@@ -0,0 +1,142 @@
+package com.example.accounting_system.services;
+
+import com.example.accounting_system.PostgresIntegrationTest;
+import com.example.accounting_system.dtos.TransactionDto;
+import com.example.accounting_system.entities.Transaction;
+import com.example.accounting_system.repositories.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PartitionMaintenanceServiceTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private PartitionMaintenanceService partitionMaintenanceService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityCacheService entityCacheService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private BalanceSnapshotService balanceSnapshotService;
+
+    @Test
+    void maintenanceCreatesThePartitionsAhead() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " +
+                PartitionMaintenanceService.partitionName("transactions", YearMonth.now().plusMonths(3)));
+
+        partitionMaintenanceService.maintainPartitions();
+
+        for (int i = 0; i <= 3; i++) {
+            String partition = PartitionMaintenanceService.partitionName(PartitionMaintenanceService.PARTITIONED_TABLE, YearMonth.now().plusMonths(i));
+            assertThat(jdbcTemplate.queryForObject("select to_regclass(?) is not null", Boolean.class, partition))
+                    .as(partition).isTrue();
+        }
+    }
+
+    @Test
+    void dateBoundedQueriesOnlyScanTheirMonth() {
+        Transaction saved = transactionRepository.save(
+                new Transaction(null, new Date(), "income", new BigDecimal("12.50"), "partitioned"));
+        assertThat(transactionRepository.findById(saved.getId())).isPresent();
+
+        YearMonth month = YearMonth.now();
+        List<String> plan = jdbcTemplate.queryForList("EXPLAIN select sum(amount) from transactions " +
+                "where date >= '" + month.atDay(1) + "' and date < '" + month.plusMonths(1).atDay(1) + "'", String.class);
+
+        String partition = PartitionMaintenanceService.partitionName("transactions", month);
+        assertThat(String.join("\n", plan)).contains(partition).doesNotContain("transactions_default");
+    }
+
+    @Test
+    void rowsOfANewMonthAlreadyInTheDefaultPartitionAreMovedIntoIt() {
+        YearMonth month = YearMonth.now().plusMonths(3);
+        String partition = PartitionMaintenanceService.partitionName("transactions", month);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+        Transaction saved = transactionRepository.save(new Transaction(null,
+                java.sql.Date.valueOf(month.atDay(10)), "income", new BigDecimal("7.25"), "ahead of its partition"));
+        assertThat(jdbcTemplate.queryForObject("select count(*) from transactions_default where id = ?", Integer.class, saved.getId()))
+                .isEqualTo(1);
+
+        partitionMaintenanceService.maintainPartitions();
+
+        assertThat(jdbcTemplate.queryForObject("select count(*) from " + partition + " where id = ?", Integer.class, saved.getId()))
+                .isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from transactions_default where id = ?", Integer.class, saved.getId()))
+                .isZero();
+        assertThat(transactionRepository.findById(saved.getId())).isPresent();
+    }
+
+    @Test
+    void idsStayUniqueAcrossPartitionsAndLookupsFollowTheKeys() {
+        Transaction dated = transactionRepository.save(new Transaction(null, new Date(), "income", new BigDecimal("3.00"), "dated"));
+        Transaction undated = transactionRepository.save(new Transaction(null, null, "income", new BigDecimal("4.00"), "undated"));
+        assertThatThrownBy(() -> jdbcTemplate.update("insert into transactions (id, date, category, amount) values (?, ?, 'income', 1)",
+                dated.getId(), java.sql.Date.valueOf(LocalDate.now().minusMonths(2))))
+                .isInstanceOf(DataIntegrityViolationException.class);
+
+        // Moves the row to the partition of another month
+        jdbcTemplate.update("update transactions set date = ? where id = ?", java.sql.Date.valueOf(LocalDate.now().minusMonths(1)), dated.getId());
+        entityCacheService.evictAll();
+
+        assertThat(transactionRepository.findById(dated.getId())).get().extracting(Transaction::getComment).isEqualTo("dated");
+        assertThat(transactionRepository.findById(undated.getId())).get().extracting(Transaction::getComment).isEqualTo("undated");
+        assertThat(transactionRepository.findPageAfterId(dated.getId() - 1, 10)).extracting(Transaction::getId)
+                .contains(dated.getId(), undated.getId());
+        assertThat(jdbcTemplate.queryForObject("select count(*) from transaction_keys where id in (?, ?)", Integer.class,
+                dated.getId(), undated.getId())).isEqualTo(2);
+    }
+
+    @Test
+    void archivingAMonthKeepsTheBalancesInAgreement() {
+        YearMonth month = YearMonth.now().minusMonths(14);
+        jdbcTemplate.queryForObject("select create_monthly_partition('transactions', ?)", Boolean.class, month.atDay(1));
+        for (int day = 1; day <= 20; day++) {
+            TransactionDto transactionDto = new TransactionDto();
+            transactionDto.setDate(java.sql.Date.valueOf(month.atDay(day)));
+            transactionDto.setAmount(new BigDecimal(day + ".40"));
+            transactionService.addTransaction(transactionDto);
+        }
+        balanceSnapshotService.backfillMissingSnapshots();
+        // Other tests save rows without going through the ledger
+        BigDecimal balance = ledgerService.recalculate();
+        List<LocalDate> days = List.of(month.atDay(5), month.atEndOfMonth(), month.plusMonths(3).atDay(1), LocalDate.now());
+        List<BigDecimal> asOf = days.stream().map(balanceSnapshotService::getBalanceAsOf).toList();
+
+        assertThat(partitionMaintenanceService.archivePartitions(PartitionMaintenanceService.PARTITIONED_TABLE, month.plusMonths(1)))
+                .isPositive();
+
+        assertThat(ledgerService.getBalance()).isEqualByComparingTo(balance);
+        assertThat(ledgerService.recalculate()).isEqualByComparingTo(balance);
+        assertThat(days.stream().map(balanceSnapshotService::getBalanceAsOf).toList())
+                .usingElementComparator(BigDecimal::compareTo).isEqualTo(asOf);
+        // Snapshots recomputed from the ledger still count the archived month
+        jdbcTemplate.update("delete from balance_rollup");
+        jdbcTemplate.update("delete from balance_adjustments");
+        jdbcTemplate.update("delete from balance");
+        balanceSnapshotService.backfillMissingSnapshots();
+        assertThat(days.stream().map(balanceSnapshotService::getBalanceAsOf).toList())
+                .usingElementComparator(BigDecimal::compareTo).isEqualTo(asOf);
+    }
+}
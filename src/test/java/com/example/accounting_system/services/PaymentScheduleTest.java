@@ -0,0 +1,52 @@
+package com.example.accounting_system.services;
+
+import com.example.accounting_system.dtos.InstallmentDto;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PaymentScheduleTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+
+    @Test
+    void placesInstallmentsEveryPeriodAndOnTheEndDate() {
+        // 95 days with a 30 day period: Jan 1, Jan 31, Mar 1, and the end date Apr 5
+        PaymentSchedule schedule = new PaymentSchedule(START, START.plusDays(95), 30, 100_00);
+
+        assertThat(schedule.getInstallmentCount()).isEqualTo(4);
+        assertThat(schedule.installmentsFrom(START).map(InstallmentDto::getDate))
+                .containsExactly(START, START.plusDays(30), START.plusDays(60), START.plusDays(95));
+        assertThat(schedule.nextDueDate(START.plusDays(1))).isEqualTo(START.plusDays(30));
+        assertThat(schedule.nextDueDate(START.plusDays(30))).isEqualTo(START.plusDays(30));
+        assertThat(schedule.nextDueDate(START.plusDays(61))).isEqualTo(START.plusDays(95));
+        assertThat(schedule.nextDueDate(START.plusDays(96))).isNull();
+    }
+
+    @Test
+    void splitsRemainingAmountExactlyOverDueInstallments() {
+        PaymentSchedule schedule = new PaymentSchedule(START, START.plusDays(90), 30, 100_00);
+
+        List<InstallmentDto> installments = schedule.installmentsFrom(START).toList();
+        assertThat(installments).extracting(InstallmentDto::getAmount)
+                .containsExactly(new BigDecimal("33.34"), new BigDecimal("33.33"), new BigDecimal("33.33"));
+        assertThat(installments.get(2).isLast()).isTrue();
+
+        InstallmentDto due = schedule.installmentDue(START.plusDays(31));
+        assertThat(due.getNumber()).isEqualTo(3);
+        assertThat(due.getAmount()).isEqualByComparingTo("100.00");
+    }
+
+    @Test
+    void endDateBeforeStartDateIsASingleInstallment() {
+        PaymentSchedule schedule = new PaymentSchedule(START, START.minusDays(10), 7, 5_00);
+
+        assertThat(schedule.getInstallmentCount()).isEqualTo(1);
+        assertThat(schedule.nextDueDate(START.minusDays(20))).isEqualTo(START.minusDays(10));
+        assertThat(schedule.nextDueDate(START)).isNull();
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.accounting_system.services;
+
+import com.example.accounting_system.PostgresIntegrationTest;
+import com.example.accounting_system.dtos.PaymentDto;
+import com.example.accounting_system.entities.Debt;
+import com.example.accounting_system.repositories.DebtRepository;
+import com.example.accounting_system.repositories.PaymentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+class PaymentServiceConcurrencyTest extends PostgresIntegrationTest {
+
+    private static final int THREADS = 16;
+    private static final BigDecimal PAYMENT = new BigDecimal("1.00");
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private DebtRepository debtRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Test
+    void concurrentPaymentsOnOneDebtAreNeverLost() throws Exception {
+        Debt debt = debtRepository.save(newDebt(new BigDecimal("100.00")));
+        AtomicInteger rejected = new AtomicInteger();
+
+        // More payments than the debt can take, exactly 100 of them must succeed
+        run(THREADS, 150, i -> {
+            try {
+                paymentService.addPayment(debt.getId(), newPayment());
+            } catch (IllegalArgumentException e) {
+                rejected.incrementAndGet();
+            }
+        });
+
+        Debt result = debtRepository.findById(debt.getId()).orElseThrow();
+        assertEquals(0, result.getReturnAmount().compareTo(BigDecimal.ZERO));
+        assertTrue(result.isDebtStatus());
+        assertEquals(100, paymentRepository.findAllByDebtId(debt.getId()).size());
+        assertEquals(50, rejected.get());
+    }
+
+    @Test
+    void concurrentPaymentsOnDifferentDebtsAreApplied() throws Exception {
+        List<Long> debtIds = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            debtIds.add(debtRepository.save(newDebt(new BigDecimal("50.00"))).getId());
+        }
+
+        run(THREADS, THREADS * 20, i -> paymentService.addPayment(debtIds.get(i % THREADS), newPayment()));
+
+        for (Long debtId : debtIds) {
+            Debt result = debtRepository.findById(debtId).orElseThrow();
+            assertEquals(0, result.getReturnAmount().compareTo(new BigDecimal("30.00")));
+            assertEquals(20, paymentRepository.findAllByDebtId(debtId).size());
+        }
+    }
+
+    private void run(int threads, int payments, PaymentTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < payments; i++) {
+            int index = i;
+            futures.add(executor.submit(() -> {
+                start.await();
+                task.run(index);
+                return null;
+            }));
+        }
+
+        long startTime = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        long elapsed = System.nanoTime() - startTime;
+        executor.shutdown();
+
+        log.info("{} payments on {} threads: {} payments/s",
+                payments, threads, Math.round(payments / (elapsed / 1_000_000_000.0)));
+    }
+
+    private static Debt newDebt(BigDecimal amount) {
+        Debt debt = new Debt();
+        debt.setStartDate(new Date());
+        debt.setEndDate(new Date());
+        debt.setCategory("test");
+        debt.setReceivedAmount(amount);
+        debt.setReturnAmount(amount);
+        debt.setReminder("monthly");
+        return debt;
+    }
+
+    private static PaymentDto newPayment() {
+        PaymentDto payment = new PaymentDto();
+        payment.setDate(new Date());
+        payment.setAmount(PAYMENT);
+        return payment;
+    }
+
+    @FunctionalInterface
+    private interface PaymentTask {
+        void run(int index);
+    }
+}
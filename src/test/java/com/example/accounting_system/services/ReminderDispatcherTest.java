@@ -0,0 +1,100 @@
+package com.example.accounting_system.services;
+
+import com.example.accounting_system.entities.OutboxStatus;
+import com.example.accounting_system.entities.ReminderOutbox;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ReminderDispatcherTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private final ReminderOutboxService reminderOutboxService = mock(ReminderOutboxService.class);
+    private ReminderDispatcher reminderDispatcher;
+
+    @AfterEach
+    void tearDown() {
+        if (reminderDispatcher != null) {
+            reminderDispatcher.shutdown();
+        }
+    }
+
+    @Test
+    void sendsRemindersInChunksAndMarksThemSent() throws Exception {
+        reminderDispatcher = dispatcher(mailSender(greenMail.getSmtp().getPort()));
+        List<ReminderOutbox> reminders = reminders(25);
+
+        reminderDispatcher.dispatch(reminders);
+
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertThat(received).hasSize(25);
+        assertThat(received[0].getSubject()).startsWith("Payment Reminder");
+        verify(reminderOutboxService).markSent(argThat(ids -> ids.size() == 25));
+        verify(reminderOutboxService, never()).markFailed(anyMap(), anyInt(), any());
+        assertThat(reminderDispatcher.getSentCount()).isEqualTo(25);
+    }
+
+    @Test
+    void schedulesRetryWhenSmtpServerIsUnreachable() {
+        when(reminderOutboxService.markFailed(anyMap(), anyInt(), any())).thenReturn(0);
+        reminderDispatcher = dispatcher(mailSender(greenMail.getSmtp().getPort() + 1));
+        List<ReminderOutbox> reminders = reminders(12);
+
+        reminderDispatcher.dispatch(reminders);
+
+        verify(reminderOutboxService, never()).markSent(any());
+        verify(reminderOutboxService).markFailed(argThat((Map<Long, String> failures) -> failures.size() == 12),
+                eq(3), eq(Duration.ofSeconds(1)));
+        assertThat(reminderDispatcher.getRetriedCount()).isEqualTo(12);
+    }
+
+    private ReminderDispatcher dispatcher(JavaMailSenderImpl mailSender) {
+        return new ReminderDispatcher(reminderOutboxService, mailSender, new SimpleMeterRegistry(), 2, 100, 5, 3,
+                Duration.ofSeconds(1), Duration.ofMinutes(1));
+    }
+
+    private JavaMailSenderImpl mailSender(int port) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost(ServerSetupTest.SMTP.getBindAddress());
+        mailSender.setPort(port);
+        return mailSender;
+    }
+
+    private List<ReminderOutbox> reminders(int count) {
+        List<ReminderOutbox> reminders = new ArrayList<>();
+        LongStream.rangeClosed(1, count).forEach(id -> {
+            ReminderOutbox reminder = new ReminderOutbox();
+            reminder.setId(id);
+            reminder.setDebtId(id);
+            reminder.setRecipient("debtor" + id + "@example.com");
+            reminder.setSubject("Payment Reminder: loan " + id);
+            reminder.setBody("Payment amount: $10");
+            reminder.setStatus(OutboxStatus.SENDING);
+            reminder.setNextAttemptAt(LocalDateTime.now());
+            reminder.setCreatedAt(LocalDateTime.now());
+            reminders.add(reminder);
+        });
+        return reminders;
+    }
+}
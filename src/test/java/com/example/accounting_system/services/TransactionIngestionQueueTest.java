@@ -0,0 +1,164 @@
+package com.example.accounting_system.services;
+
+import com.example.accounting_system.dtos.TransactionDto;
+import com.example.accounting_system.entities.Transaction;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class TransactionIngestionQueueTest {
+
+    private final TransactionBatchService transactionBatchService = mock(TransactionBatchService.class);
+    private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicLong ids = new AtomicLong();
+    private TransactionIngestionQueue queue;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (queue != null) {
+            queue.stop();
+        }
+    }
+
+    @Test
+    void commitsSubmissionsInBatchesOfAtMostTheMaxSize() throws Exception {
+        queue = startQueue(4, Duration.ofMillis(200));
+
+        List<CompletableFuture<Transaction>> futures = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            futures.add(queue.submit(transaction(i)));
+        }
+
+        for (int i = 0; i < futures.size(); i++) {
+            assertThat(futures.get(i).get(5, TimeUnit.SECONDS).getAmount()).isEqualByComparingTo(BigDecimal.valueOf(i + 1));
+        }
+        assertThat(batchSizes).allSatisfy(size -> assertThat(size).isLessThanOrEqualTo(4));
+        assertThat(batchSizes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(10);
+        assertThat(batchSizes.size()).isLessThan(10);
+    }
+
+    @Test
+    void rejectedSubmissionDoesNotFailItsBatch() throws Exception {
+        queue = startQueue(10, Duration.ofMillis(200));
+
+        CompletableFuture<Transaction> accepted = queue.submit(transaction(5));
+        CompletableFuture<Transaction> rejected = queue.submit(transaction(-1));
+
+        assertThat(accepted.get(5, TimeUnit.SECONDS).getId()).isNotNull();
+        assertThatThrownBy(() -> rejected.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasRootCauseMessage("Invalid transaction amount");
+    }
+
+    @Test
+    void failedCommitFailsEveryFutureOfTheBatch() {
+        when(transactionBatchService.saveSubmitted(anyList(), any())).thenThrow(new RuntimeException("Database is down"));
+        queue = new TransactionIngestionQueue(transactionBatchService, new SimpleMeterRegistry(),
+                true, 100, 10, Duration.ofMillis(50), Duration.ofSeconds(1));
+        queue.start();
+
+        CompletableFuture<Transaction> future = queue.submit(transaction(1));
+
+        assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS)).hasRootCauseMessage("Database is down");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failedBatchIsRetriedOneTransactionAtATime() throws Exception {
+        when(transactionBatchService.saveSubmitted(anyList(), any())).thenAnswer(invocation -> {
+            List<TransactionDto> transactionDtos = invocation.getArgument(0);
+            batchSizes.add(transactionDtos.size());
+            if (transactionDtos.stream().anyMatch(transactionDto -> transactionDto.getAmount().signum() < 0)) {
+                throw new RuntimeException("Check constraint violated");
+            }
+            return transactionDtos.stream()
+                    .map(transactionDto -> new Transaction(ids.incrementAndGet(), transactionDto.getDate(), "income",
+                            transactionDto.getAmount(), transactionDto.getComment()))
+                    .toList();
+        });
+        queue = new TransactionIngestionQueue(transactionBatchService, new SimpleMeterRegistry(),
+                true, 100, 10, Duration.ofMillis(500), Duration.ofSeconds(1));
+        queue.start();
+
+        CompletableFuture<Transaction> first = queue.submit(transaction(1));
+        CompletableFuture<Transaction> failing = queue.submit(transaction(-1));
+        CompletableFuture<Transaction> last = queue.submit(transaction(3));
+
+        assertThat(first.get(5, TimeUnit.SECONDS).getAmount()).isEqualByComparingTo("1");
+        assertThat(last.get(5, TimeUnit.SECONDS).getAmount()).isEqualByComparingTo("3");
+        assertThatThrownBy(() -> failing.get(5, TimeUnit.SECONDS)).hasRootCauseMessage("Check constraint violated");
+        assertThat(batchSizes).containsExactly(3, 1, 1, 1);
+    }
+
+    @Test
+    void rejectsSubmissionsAfterStopping() throws Exception {
+        queue = startQueue(10, Duration.ofMillis(50));
+        queue.stop();
+
+        assertThatThrownBy(() -> queue.submit(transaction(1))).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void rejectsSubmissionsWhenDisabled() {
+        queue = new TransactionIngestionQueue(transactionBatchService, new SimpleMeterRegistry(),
+                false, 100, 10, Duration.ofMillis(50), Duration.ofSeconds(1));
+        queue.start();
+
+        assertThat(queue.isEnabled()).isFalse();
+        assertThatThrownBy(() -> queue.submit(transaction(1))).isInstanceOf(IllegalStateException.class);
+    }
+
+    /**
+     * Starts a queue whose batch service saves positive amounts and rejects the others.
+     */
+    @SuppressWarnings("unchecked")
+    private TransactionIngestionQueue startQueue(int maxBatchSize, Duration maxLinger) {
+        when(transactionBatchService.saveSubmitted(anyList(), any())).thenAnswer(invocation -> {
+            List<TransactionDto> transactionDtos = invocation.getArgument(0);
+            BiConsumer<Integer, RuntimeException> onRejected = invocation.getArgument(1);
+            batchSizes.add(transactionDtos.size());
+            List<Transaction> saved = new ArrayList<>();
+            for (int i = 0; i < transactionDtos.size(); i++) {
+                TransactionDto transactionDto = transactionDtos.get(i);
+                if (transactionDto.getAmount().signum() > 0) {
+                    saved.add(new Transaction(ids.incrementAndGet(), transactionDto.getDate(), "income",
+                            transactionDto.getAmount(), transactionDto.getComment()));
+                } else {
+                    onRejected.accept(i, new RuntimeException("Invalid transaction amount"));
+                    saved.add(null);
+                }
+            }
+            return saved;
+        });
+        TransactionIngestionQueue ingestionQueue = new TransactionIngestionQueue(transactionBatchService,
+                new SimpleMeterRegistry(), true, 100, maxBatchSize, maxLinger, Duration.ofSeconds(1));
+        ingestionQueue.start();
+        return ingestionQueue;
+    }
+
+    private TransactionDto transaction(long amount) {
+        TransactionDto transactionDto = new TransactionDto();
+        transactionDto.setDate(new Date());
+        transactionDto.setAmount(BigDecimal.valueOf(amount));
+        transactionDto.setComment("queued");
+        return transactionDto;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.accounting_system.services;
+
+import com.example.accounting_system.PostgresIntegrationTest;
+import com.example.accounting_system.dtos.TransactionSearchDto;
+import com.example.accounting_system.entities.Transaction;
+import com.example.accounting_system.entities.TransactionSort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TransactionSearchServiceTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private TransactionSearchService transactionSearchService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void insertTransactions() {
+        jdbcTemplate.update("delete from transactions where category = 'search'");
+        // Amounts repeat every 50 rows, so pages sorted by amount have ties broken by id
+        jdbcTemplate.update("insert into transactions (id, date, category, amount, comment) " +
+                "select nextval('transactions_seq'), current_date - n, 'search', n % 50 + 0.5, " +
+                "case when n % 10 = 0 then 'Rent 100%_paid' else 'groceries' end " +
+                "from generate_series(1, 500) n");
+    }
+
+    @Test
+    void pagesThroughTheMatchingTransactionsInSortOrder() {
+        TransactionSearchDto search = new TransactionSearchDto(LocalDate.now().minusDays(400), LocalDate.now(),
+                new BigDecimal("10"), new BigDecimal("40"), "search", null, TransactionSort.AMOUNT, Sort.Direction.DESC);
+
+        List<Transaction> all = new ArrayList<>();
+        String after = null;
+        List<Transaction> page;
+        do {
+            page = transactionSearchService.search(search, after, 37);
+            all.addAll(page);
+            if (!page.isEmpty()) {
+                after = TransactionSearchService.cursorOf(page.get(page.size() - 1), TransactionSort.AMOUNT);
+            }
+        } while (page.size() == 37);
+
+        Integer expected = jdbcTemplate.queryForObject("select count(*) from transactions where category = 'search' " +
+                "and amount between 10 and 40 and date >= current_date - 400", Integer.class);
+        assertThat(all).hasSize(expected);
+        assertThat(all).extracting(Transaction::getId).doesNotHaveDuplicates();
+        for (int i = 1; i < all.size(); i++) {
+            int comparison = all.get(i - 1).getAmount().compareTo(all.get(i).getAmount());
+            assertThat(comparison > 0 || comparison == 0 && all.get(i - 1).getId() > all.get(i).getId()).isTrue();
+        }
+    }
+
+    @Test
+    void matchesTheCommentTextLiterally() {
+        TransactionSearchDto search = new TransactionSearchDto(null, null, null, null, "search", "100%_PAID",
+                TransactionSort.DATE, Sort.Direction.ASC);
+
+        List<Transaction> found = transactionSearchService.search(search, null, 1000);
+
+        assertThat(found).hasSize(50).allSatisfy(transaction -> assertThat(transaction.getComment()).isEqualTo("Rent 100%_paid"));
+        String cursor = TransactionSearchService.cursorOf(found.get(9), TransactionSort.DATE);
+        assertThat(transactionSearchService.search(search, cursor, 1000)).hasSize(40);
+    }
+
+    @Test
+    void rejectsAnInvalidCursor() {
+        TransactionSearchDto search = new TransactionSearchDto(null, null, null, null, null, null,
+                TransactionSort.DATE, Sort.Direction.ASC);
+
+        assertThatThrownBy(() -> transactionSearchService.search(search, "yesterday", 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
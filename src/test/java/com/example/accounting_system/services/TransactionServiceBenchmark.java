@@ -0,0 +1,50 @@
+package com.example.accounting_system.services;
+
+import com.example.accounting_system.dtos.TransactionDto;
+import com.example.accounting_system.entities.Transaction;
+import com.example.accounting_system.repositories.BalanceRepository;
+import com.example.accounting_system.repositories.BalanceRollupRepository;
+import com.example.accounting_system.repositories.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionServiceBenchmark {
+    private TransactionService transactionService;
+    private TransactionDto transactionDto;
+
+    @Setup
+    public void setUp() {
+        // Only the conversion is measured, the persistence collaborators are unused
+        transactionService = new TransactionService(
+                mock(TransactionRepository.class),
+                mock(BalanceRepository.class),
+                mock(BalanceRollupRepository.class),
+                mock(LedgerService.class),
+                mock(BalanceProvider.class),
+                mock(EntityManager.class),
+                new LedgerVersion(),
+                mock(BalanceSnapshotService.class));
+
+        transactionDto = new TransactionDto();
+        transactionDto.setDate(new Date());
+        transactionDto.setAmount(new BigDecimal("-42.50"));
+        transactionDto.setComment("Groceries");
+    }
+
+    @Benchmark
+    public Transaction convertToTransaction() {
+        return transactionService.convertToTransaction(transactionDto);
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.accounting_system.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTest {
+
+    @Test
+    void roundsHalfUpToCentsLikeNumericColumns() {
+        assertThat(Money.toCents(new BigDecimal("12.34"))).isEqualTo(1234L);
+        assertThat(Money.toCents(new BigDecimal("7"))).isEqualTo(700L);
+        assertThat(Money.toCents(new BigDecimal("1.005"))).isEqualTo(101L);
+        assertThat(Money.toCents(new BigDecimal("1.0049"))).isEqualTo(100L);
+        assertThat(Money.toCents(new BigDecimal("-1.005"))).isEqualTo(-101L);
+        assertThat(Money.toCents(new BigDecimal("1E+3"))).isEqualTo(100000L);
+    }
+
+    @Test
+    void failsInsteadOfOverflowing() {
+        assertThat(Money.toCents(new BigDecimal("92233720368547758.07"))).isEqualTo(Long.MAX_VALUE);
+        assertThatThrownBy(() -> Money.toCents(new BigDecimal("92233720368547758.08")))
+                .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Money.toCents(new BigDecimal("-92233720368547758.09")))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void convertsCentsBackWithScaleTwo() {
+        assertThat(Money.toBigDecimal(1234L)).isEqualTo(new BigDecimal("12.34"));
+        assertThat(Money.toBigDecimal(-5L)).isEqualTo(new BigDecimal("-0.05"));
+        assertThat(Money.toBigDecimal(0L)).isEqualTo(new BigDecimal("0.00"));
+        assertThat(Money.toBigDecimal(Money.toCents(new BigDecimal("98765.43")))).isEqualTo(new BigDecimal("98765.43"));
+    }
+}